@@ -4,6 +4,7 @@ import java.io.File;
 
 import minecrafttransportsimulator.blocks.core.BlockPartBench;
 import minecrafttransportsimulator.blocks.decor.BlockDecor6AxisSign;
+import minecrafttransportsimulator.commands.CommandMetrics;
 import minecrafttransportsimulator.guis.GUIInstruments;
 import minecrafttransportsimulator.guis.GUIManual;
 import minecrafttransportsimulator.guis.GUIPartBench;
@@ -17,6 +18,7 @@ import minecrafttransportsimulator.systems.SFXSystem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.Vec3d;
+import net.minecraftforge.client.ClientCommandHandler;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.relauncher.Side;
 import net.minecraftforge.fml.relauncher.SideOnly;
@@ -39,6 +41,12 @@ public class ClientProxy extends CommonProxy{
 	public void initControls(){
 		ControlSystem.init();
 	}
+	
+	@Override
+	public void initCommands(){
+		ClientCommandHandler.instance.registerCommand(new CommandMetrics(Side.CLIENT));
+	}
+	
 	@Override
 	public void openGUI(Object clicked, EntityPlayer clicker){
 		if(clicked instanceof EntityMultipartE_Vehicle){
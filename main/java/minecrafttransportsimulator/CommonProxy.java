@@ -20,6 +20,7 @@ public class CommonProxy{
 	}
 	
 	public void initControls(){}
+	public void initCommands(){}
 	public void openGUI(Object clicked, EntityPlayer clicker){}
 	public void playSound(Vec3d soundPosition, String soundName, float volume, float pitch){}
 	public void addVehicleEngineSound(EntityMultipartE_Vehicle vehicle, APartEngine engine){}
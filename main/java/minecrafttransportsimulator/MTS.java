@@ -2,7 +2,11 @@ package minecrafttransportsimulator;
 
 import org.apache.logging.log4j.Logger;
 
+import minecrafttransportsimulator.commands.CommandMetrics;
+import minecrafttransportsimulator.commands.CommandMultipartSnapshot;
+import minecrafttransportsimulator.commands.CommandNetworkProfiler;
 import minecrafttransportsimulator.dataclasses.MTSRegistry;
+import minecrafttransportsimulator.packets.MTSNetworkWrapper;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
 import net.minecraftforge.fluids.FluidRegistry;
@@ -12,8 +16,9 @@ import net.minecraftforge.fml.common.Mod.Instance;
 import net.minecraftforge.fml.common.SidedProxy;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
-import net.minecraftforge.fml.common.network.NetworkRegistry;
+import net.minecraftforge.fml.common.event.FMLServerStartingEvent;
 import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import net.minecraftforge.fml.relauncher.Side;
 
 @Mod(modid = MTS.MODID, name = MTS.MODNAME, version = MTS.MODVER)
 public class MTS {
@@ -24,7 +29,7 @@ public class MTS {
 	@Instance(value = MTS.MODID)
 	public static MTS instance;
 	public static Logger MTSLog;
-	public static final SimpleNetworkWrapper MTSNet = NetworkRegistry.INSTANCE.newSimpleChannel("MTSNet");
+	public static final SimpleNetworkWrapper MTSNet = new MTSNetworkWrapper("MTSNet");
 	@SidedProxy(clientSide="minecrafttransportsimulator.ClientProxy", serverSide="minecrafttransportsimulator.CommonProxy")
 	public static CommonProxy proxy;
 	
@@ -44,5 +49,13 @@ public class MTS {
 	public void init(FMLInitializationEvent event){
 		MTSRegistry.init();
 		ConfigSystem.initFuels();
+		proxy.initCommands();
+	}
+	
+	@EventHandler
+	public void serverStarting(FMLServerStartingEvent event){
+		event.registerServerCommand(new CommandNetworkProfiler());
+		event.registerServerCommand(new CommandMultipartSnapshot());
+		event.registerServerCommand(new CommandMetrics(Side.SERVER));
 	}
 }
@@ -0,0 +1,207 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**This class buffers the states a server sends for a multipart so clients can play them back smoothly.
+ * Each snapshot is the server's total movement at a point in server time, which is worked out from the
+ * number of ticks each delta packet covers.  Playback runs a set number of ticks behind the newest snapshot,
+ * so states on either side of the playback time are normally known and can be interpolated between.
+ * If packets are late and playback passes the newest snapshot, the last known velocity is used to
+ * extrapolate for a bit before holding still.  Playback time is re-synced if it gets too far ahead of or
+ * behind the snapshots, which happens if the server lags or the connection stalls.
+ * Clients that move a multipart themselves, such as the one driving it, don't play back states.  They use the
+ * predicted state instead, which is where the server most likely is now rather than where it was.
+ *
+ * @author don_bruce
+ */
+public class MultipartSnapshotBuffer{
+	/**Max number of snapshots to keep.  Any more than this and the oldest get dropped.*/
+	private static final int MAX_SNAPSHOTS = 32;
+
+	private final List<Snapshot> snapshots = new ArrayList<Snapshot>();
+	private double playbackTime;
+	/**Ticks since the newest snapshot was added.*/
+	private int ticksSinceNewest;
+
+	private double x;
+	private double y;
+	private double z;
+	private float yaw;
+	private float pitch;
+	private float roll;
+
+	/**
+	 * Clears the buffer and starts it at the passed-in state.  Call this when the full state of the multipart is known,
+	 * such as when it's first loaded from NBT.
+	 */
+	public void reset(double x, double y, double z, float yaw, float pitch, float roll){
+		snapshots.clear();
+		snapshots.add(new Snapshot(0, x, y, z, yaw, pitch, roll));
+		playbackTime = 0;
+		ticksSinceNewest = 0;
+		this.x = x;
+		this.y = y;
+		this.z = z;
+		this.yaw = yaw;
+		this.pitch = pitch;
+		this.roll = roll;
+	}
+
+	public boolean isInitialized(){
+		return !snapshots.isEmpty();
+	}
+
+	/**
+	 * Adds a snapshot with the passed-in state.  Ticks is how many server ticks have gone by since the last snapshot.
+	 * Delay is how many ticks behind this snapshot playback should be if it needs to be re-synced.
+	 */
+	public void addSnapshot(int ticks, double x, double y, double z, float yaw, float pitch, float roll, int delay){
+		if(snapshots.isEmpty()){
+			reset(x, y, z, yaw, pitch, roll);
+			return;
+		}
+		long time = snapshots.get(snapshots.size() - 1).time + Math.max(ticks, 1);
+		snapshots.add(new Snapshot(time, x, y, z, yaw, pitch, roll));
+		ticksSinceNewest = 0;
+		if(snapshots.size() > MAX_SNAPSHOTS){
+			snapshots.remove(0);
+		}
+
+		//If we were extrapolating past this snapshot, go back to it rather than keep guessing.
+		//If we've fallen way behind, jump ahead so we don't keep showing old states.
+		if(playbackTime > time){
+			playbackTime = time;
+		}else if(time - playbackTime > 2*delay + 1){
+			playbackTime = time - delay;
+		}
+	}
+
+	/**
+	 * Advances playback by one tick and works out the state at the new playback time.
+	 * Extrapolation is limited to the passed-in number of ticks past the newest snapshot.
+	 */
+	public void update(int maxExtrapolationTicks){
+		++playbackTime;
+		++ticksSinceNewest;
+
+		//Drop snapshots we've fully played past.  Keep the one just before playback to interpolate from.
+		while(snapshots.size() > 2 && snapshots.get(1).time <= playbackTime){
+			snapshots.remove(0);
+		}
+
+		Snapshot newest = snapshots.get(snapshots.size() - 1);
+		if(playbackTime >= newest.time){
+			if(snapshots.size() > 1){
+				Snapshot prior = snapshots.get(snapshots.size() - 2);
+				double factor = Math.min(playbackTime - newest.time, maxExtrapolationTicks)/(newest.time - prior.time);
+				setInterpolatedState(newest, prior, -factor);
+			}else{
+				setInterpolatedState(newest, newest, 0);
+			}
+		}else{
+			Snapshot before = snapshots.get(0);
+			Snapshot after = snapshots.get(1);
+			setInterpolatedState(before, after, Math.max(playbackTime - before.time, 0)/(after.time - before.time));
+		}
+	}
+
+	/**
+	 * Sets the current state to the point the passed-in factor is between the two passed-in snapshots.
+	 * Factors outside 0-1 go past the snapshots in a straight line.
+	 */
+	private void setInterpolatedState(Snapshot from, Snapshot to, double factor){
+		x = from.x + (to.x - from.x)*factor;
+		y = from.y + (to.y - from.y)*factor;
+		z = from.z + (to.z - from.z)*factor;
+		yaw = (float) (from.yaw + (to.yaw - from.yaw)*factor);
+		pitch = (float) (from.pitch + (to.pitch - from.pitch)*factor);
+		roll = (float) (from.roll + (to.roll - from.roll)*factor);
+	}
+
+	/**
+	 * Returns the predicted state of the server now.  This is the newest snapshot moved on for every tick since
+	 * at the velocity between it and the snapshot before it.  Servers make the same prediction and send a new
+	 * snapshot whenever it gets too far off, so it stays close to the server without waiting out the playback delay.
+	 */
+	public double getPredictedX(){
+		return getPredictedValue(getNewest().x, getPriorToNewest().x);
+	}
+
+	public double getPredictedY(){
+		return getPredictedValue(getNewest().y, getPriorToNewest().y);
+	}
+
+	public double getPredictedZ(){
+		return getPredictedValue(getNewest().z, getPriorToNewest().z);
+	}
+
+	public float getPredictedYaw(){
+		return (float) getPredictedValue(getNewest().yaw, getPriorToNewest().yaw);
+	}
+
+	public float getPredictedPitch(){
+		return (float) getPredictedValue(getNewest().pitch, getPriorToNewest().pitch);
+	}
+
+	public float getPredictedRoll(){
+		return (float) getPredictedValue(getNewest().roll, getPriorToNewest().roll);
+	}
+
+	private double getPredictedValue(double newestValue, double priorValue){
+		long ticksBetween = getNewest().time - getPriorToNewest().time;
+		return ticksBetween > 0 ? newestValue + (newestValue - priorValue)*ticksSinceNewest/ticksBetween : newestValue;
+	}
+
+	private Snapshot getNewest(){
+		return snapshots.get(snapshots.size() - 1);
+	}
+
+	private Snapshot getPriorToNewest(){
+		return snapshots.get(Math.max(snapshots.size() - 2, 0));
+	}
+
+	public double getX(){
+		return x;
+	}
+
+	public double getY(){
+		return y;
+	}
+
+	public double getZ(){
+		return z;
+	}
+
+	public float getYaw(){
+		return yaw;
+	}
+
+	public float getPitch(){
+		return pitch;
+	}
+
+	public float getRoll(){
+		return roll;
+	}
+
+	private static class Snapshot{
+		private final long time;
+		private final double x;
+		private final double y;
+		private final double z;
+		private final float yaw;
+		private final float pitch;
+		private final float roll;
+
+		private Snapshot(long time, double x, double y, double z, float yaw, float pitch, float roll){
+			this.time = time;
+			this.x = x;
+			this.y = y;
+			this.z = z;
+			this.yaw = yaw;
+			this.pitch = pitch;
+			this.roll = roll;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package minecrafttransportsimulator.baseclasses;
+
+import minecrafttransportsimulator.systems.RotationSystem;
+import net.minecraft.util.math.Vec3d;
+
+/**Pre-computed rotation matrix for a set of pitch, yaw, and roll angles.
+ * This does the same math as {@link RotationSystem#getRotatedPoint(Vec3d, float, float, float)},
+ * but only does the trig once when created rather than on every point rotated.  Matrixes are
+ * immutable, so a single one may be shared between threads without any locking.
+ * Multiparts keep one of these for their current orientation, so use that rather than making new ones.
+ *
+ * @author don_bruce
+ */
+public final class RotationMatrix{
+	public static final RotationMatrix IDENTITY = new RotationMatrix(0, 0, 0);
+
+	public final float pitch;
+	public final float yaw;
+	public final float roll;
+
+	private final double m00;
+	private final double m01;
+	private final double m02;
+	private final double m10;
+	private final double m11;
+	private final double m12;
+	private final double m20;
+	private final double m21;
+	private final double m22;
+
+	public RotationMatrix(float pitch, float yaw, float roll){
+		this.pitch = pitch;
+		this.yaw = yaw;
+		this.roll = roll;
+
+		//See the RotationSystem for how these are derived.
+		final double cosPitch = Math.cos(pitch * 0.017453292F);//A
+		final double sinPitch = Math.sin(pitch * 0.017453292F);//B
+		final double cosYaw = Math.cos(yaw * 0.017453292F);//C
+		final double sinYaw = Math.sin(yaw * 0.017453292F);//D
+		final double cosRoll = Math.cos(roll * 0.017453292F);//E
+		final double sinRoll = Math.sin(roll * 0.017453292F);//F
+		m00 = cosYaw*cosRoll - sinPitch*sinYaw*sinRoll;
+		m01 = -sinPitch*sinYaw*cosRoll - cosYaw*sinRoll;
+		m02 = -cosPitch*sinYaw;
+		m10 = cosPitch*sinRoll;
+		m11 = cosPitch*cosRoll;
+		m12 = -sinPitch;
+		m20 = sinYaw*cosRoll + sinPitch*cosYaw*sinRoll;
+		m21 = sinPitch*cosYaw*cosRoll - sinYaw*sinRoll;
+		m22 = cosPitch*cosYaw;
+	}
+
+	/**
+	 * Returns true if this matrix was made with the passed-in angles.
+	 */
+	public boolean isForAngles(float pitch, float yaw, float roll){
+		return this.pitch == pitch && this.yaw == yaw && this.roll == roll;
+	}
+
+	/**
+	 * Rotates the passed-in point and returns a new Vec3d.
+	 */
+	public Vec3d rotate(Vec3d pos){
+		return new Vec3d(getRotatedX(pos.xCoord, pos.yCoord, pos.zCoord), getRotatedY(pos.xCoord, pos.yCoord, pos.zCoord), getRotatedZ(pos.xCoord, pos.yCoord, pos.zCoord));
+	}
+
+	/**
+	 * Rotates the passed-in point, offsets it by the passed-in origin, and returns a new Vec3d.
+	 * Saves making a second vector when you want a point in world coordinates.
+	 */
+	public Vec3d rotateAndOffset(Vec3d pos, double originX, double originY, double originZ){
+		return new Vec3d(originX + getRotatedX(pos.xCoord, pos.yCoord, pos.zCoord), originY + getRotatedY(pos.xCoord, pos.yCoord, pos.zCoord), originZ + getRotatedZ(pos.xCoord, pos.yCoord, pos.zCoord));
+	}
+
+	/**
+	 * Returns the X-component of the rotated point.  Use these three methods if you don't want a new Vec3d.
+	 */
+	public double getRotatedX(double x, double y, double z){
+		return x*m00 + y*m01 + z*m02;
+	}
+
+	public double getRotatedY(double x, double y, double z){
+		return x*m10 + y*m11 + z*m12;
+	}
+
+	public double getRotatedZ(double x, double y, double z){
+		return x*m20 + y*m21 + z*m22;
+	}
+
+	/**
+	 * Returns a vector of [0,1,0] rotated by this matrix.
+	 * Same as {@link RotationSystem#getRotatedY(float, float, float)}.
+	 */
+	public Vec3d getRotatedYAxis(){
+		return new Vec3d(m01, m11, m21);
+	}
+}
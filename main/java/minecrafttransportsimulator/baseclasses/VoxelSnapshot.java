@@ -0,0 +1,172 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+/**This class is a per-tick snapshot of the blocks around a multipart.  It's used to answer
+ * the many block collision queries a multipart makes each tick without going back to the
+ * world for every one of them.  Cells are loaded from the world the first time they are asked
+ * for in a tick, and are then re-used until the next call to {@link #capture(AxisAlignedBB)}.
+ * The region is bounded in size; any query outside the region simply goes to the world.
+ * If a block changes mid-tick (say it was broken by a collision), call {@link #invalidate(BlockPos)}
+ * so the next query re-loads it.
+ *
+ * @author don_bruce
+ */
+public class VoxelSnapshot{
+	/**Max number of cells in a snapshot.  Regions bigger than this get clipped, and queries outside use the world directly.*/
+	private static final int MAX_VOLUME = 16384;
+
+	private final World world;
+	private final BlockPos.MutableBlockPos mutablePos = new BlockPos.MutableBlockPos();
+
+	private int minX;
+	private int minY;
+	private int minZ;
+	private int sizeX;
+	private int sizeY;
+	private int sizeZ;
+
+	/**Current snapshot generation.  Cells whose generation doesn't match this need to be re-loaded.
+	 * This saves us from having to clear the arrays every tick.*/
+	private int generation;
+	private int[] cellGenerations = new int[0];
+	private IBlockState[] cellStates = new IBlockState[0];
+	private boolean[] cellCollides = new boolean[0];
+	private AxisAlignedBB[] cellLiquidBoxes = new AxisAlignedBB[0];
+	private List<List<AxisAlignedBB>> cellCollisionBoxes = new ArrayList<List<AxisAlignedBB>>();
+
+	public VoxelSnapshot(World world){
+		this.world = world;
+	}
+
+	/**
+	 * Starts a new snapshot covering the passed-in region.  All cells from the prior snapshot are discarded.
+	 */
+	public void capture(AxisAlignedBB region){
+		minX = (int) Math.floor(region.minX);
+		minY = (int) Math.floor(region.minY);
+		minZ = (int) Math.floor(region.minZ);
+		sizeX = (int) Math.floor(region.maxX + 1.0D) - minX;
+		sizeY = (int) Math.floor(region.maxY + 1.0D) - minY;
+		sizeZ = (int) Math.floor(region.maxZ + 1.0D) - minZ;
+
+		//Clip the region if it's too big.  Y goes first as it's least likely to matter.
+		while(sizeX*sizeY*sizeZ > MAX_VOLUME){
+			if(sizeY > 1 && sizeY >= sizeX/2 && sizeY >= sizeZ/2){
+				minY += sizeY/4;
+				sizeY -= sizeY/2;
+			}else if(sizeX >= sizeZ){
+				minX += sizeX/4;
+				sizeX -= sizeX/2;
+			}else{
+				minZ += sizeZ/4;
+				sizeZ -= sizeZ/2;
+			}
+		}
+
+		int volume = sizeX*sizeY*sizeZ;
+		if(volume > cellGenerations.length){
+			cellGenerations = new int[volume];
+			cellStates = new IBlockState[volume];
+			cellCollides = new boolean[volume];
+			cellLiquidBoxes = new AxisAlignedBB[volume];
+		}
+		while(cellCollisionBoxes.size() < volume){
+			cellCollisionBoxes.add(new ArrayList<AxisAlignedBB>(1));
+		}
+		++generation;
+	}
+
+	/**
+	 * Marks the block at the passed-in position as changed.  The next query will re-load it from the world.
+	 */
+	public void invalidate(BlockPos pos){
+		int cellIndex = getCellIndex(pos.getX(), pos.getY(), pos.getZ());
+		if(cellIndex != -1){
+			cellGenerations[cellIndex] = generation - 1;
+		}
+	}
+
+	/**
+	 * Returns the block state at the passed-in position.
+	 */
+	public IBlockState getBlockState(int x, int y, int z){
+		int cellIndex = getLoadedCellIndex(x, y, z);
+		return cellIndex != -1 ? cellStates[cellIndex] : world.getBlockState(mutablePos.setPos(x, y, z));
+	}
+
+	/**
+	 * Adds all block collision boxes in the block at the passed-in position that collide with the passed-in box.
+	 * If includeLiquids is true, liquid blocks will add their bounding box as well.
+	 * Returns true if the block at this position is a block that can be collided with.
+	 * This is identical to checking the state manually, just without all the world calls.
+	 */
+	public boolean addCollisionBoxes(int x, int y, int z, AxisAlignedBB box, boolean includeLiquids, List<AxisAlignedBB> collidingAABBList){
+		int cellIndex = getLoadedCellIndex(x, y, z);
+		if(cellIndex != -1){
+			if(cellCollides[cellIndex]){
+				for(AxisAlignedBB blockBox : cellCollisionBoxes.get(cellIndex)){
+					if(blockBox.intersectsWith(box)){
+						collidingAABBList.add(blockBox);
+					}
+				}
+			}
+			if(includeLiquids && cellLiquidBoxes[cellIndex] != null){
+				collidingAABBList.add(cellLiquidBoxes[cellIndex]);
+			}
+			return cellCollides[cellIndex];
+		}else{
+			BlockPos pos = new BlockPos(x, y, z);
+			IBlockState state = world.getBlockState(pos);
+			boolean canCollide = state.getBlock().canCollideCheck(state, false);
+			if(canCollide){
+				state.addCollisionBoxToList(world, pos, box, collidingAABBList, null);
+			}
+			if(includeLiquids && state.getMaterial().isLiquid()){
+				collidingAABBList.add(state.getBoundingBox(world, pos).offset(pos));
+			}
+			return canCollide;
+		}
+	}
+
+	/**
+	 * Returns the index of the cell at the passed-in position, loading it if needed.
+	 * Returns -1 if the position is outside the snapshot.
+	 */
+	private int getLoadedCellIndex(int x, int y, int z){
+		int cellIndex = getCellIndex(x, y, z);
+		if(cellIndex != -1 && cellGenerations[cellIndex] != generation){
+			mutablePos.setPos(x, y, z);
+			IBlockState state = world.getBlockState(mutablePos);
+			cellStates[cellIndex] = state;
+			cellCollides[cellIndex] = state.getBlock().canCollideCheck(state, false);
+			List<AxisAlignedBB> blockBoxes = cellCollisionBoxes.get(cellIndex);
+			blockBoxes.clear();
+			if(cellCollides[cellIndex]){
+				//Get every box for this block by using a query box that covers the block and its neighbors.
+				BlockPos pos = mutablePos.toImmutable();
+				state.addCollisionBoxToList(world, pos, new AxisAlignedBB(x - 1, y - 1, z - 1, x + 2, y + 2, z + 2), blockBoxes, null);
+			}
+			cellLiquidBoxes[cellIndex] = state.getMaterial().isLiquid() ? state.getBoundingBox(world, mutablePos).offset(x, y, z) : null;
+			cellGenerations[cellIndex] = generation;
+		}
+		return cellIndex;
+	}
+
+	private int getCellIndex(int x, int y, int z){
+		x -= minX;
+		y -= minY;
+		z -= minZ;
+		if(x < 0 || y < 0 || z < 0 || x >= sizeX || y >= sizeY || z >= sizeZ){
+			return -1;
+		}else{
+			return (y*sizeZ + z)*sizeX + x;
+		}
+	}
+}
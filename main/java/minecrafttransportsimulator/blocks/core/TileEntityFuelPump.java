@@ -48,6 +48,7 @@ public class TileEntityFuelPump extends TileEntityRotatable implements IFluidTan
 					int fuelToFill = Math.min(this.tankInfo.fluid.amount, 10);
 					this.tankInfo.fluid.amount -= fuelToFill;
 					connectedVehicle.fuel += fuelToFill;
+					connectedVehicle.markNBTDirty();
 					totalTransfered += fuelToFill;
 					if(this.tankInfo.fluid.amount == 0){
 						setConnectedVehicle(null);
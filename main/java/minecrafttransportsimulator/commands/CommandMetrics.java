@@ -0,0 +1,56 @@
+package minecrafttransportsimulator.commands;
+
+import java.util.List;
+
+import minecrafttransportsimulator.systems.MetricsSystem;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**Command that shows the counters in the {@link MetricsSystem}.  Servers register mtsmetrics for their counters,
+ * and clients register mtsclientmetrics for theirs, as a client's counters can't be seen from a dedicated server.
+ *
+ * @author don_bruce
+ */
+public class CommandMetrics extends CommandBase{
+	private final Side side;
+
+	public CommandMetrics(Side side){
+		this.side = side;
+	}
+
+	@Override
+	public String getCommandName(){
+		return side.isServer() ? "mtsmetrics" : "mtsclientmetrics";
+	}
+
+	@Override
+	public String getCommandUsage(ICommandSender sender){
+		return "/" + getCommandName();
+	}
+
+	@Override
+	public int getRequiredPermissionLevel(){
+		return side.isServer() ? 2 : 0;
+	}
+
+	@Override
+	public boolean checkPermission(MinecraftServer server, ICommandSender sender){
+		//Client counters are only about this client, so anyone can see them.
+		return !side.isServer() || super.checkPermission(server, sender);
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException{
+		List<String> lines = MetricsSystem.getSummary(side);
+		for(String line : lines){
+			sender.addChatMessage(new TextComponentString(line));
+		}
+		if(lines.isEmpty()){
+			sender.addChatMessage(new TextComponentString("No metrics recorded."));
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package minecrafttransportsimulator.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import minecrafttransportsimulator.MTS;
+import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import minecrafttransportsimulator.systems.SnapshotSystem;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+import net.minecraft.world.World;
+
+/**Command for the {@link SnapshotSystem}.  Exports all multiparts within a radius of the sender to a snapshot file,
+ * or imports all multiparts in a snapshot file around the sender.  Files are kept in the mts_snapshots folder
+ * in the server directory.  Time taken is shown so big exports and imports can be checked.
+ *
+ * @author don_bruce
+ */
+public class CommandMultipartSnapshot extends CommandBase{
+	private static final String SNAPSHOT_FOLDER = "mts_snapshots";
+	private static final int DEFAULT_RADIUS = 32;
+	private static final int MAX_RADIUS = 512;
+
+	@Override
+	public String getCommandName(){
+		return "mtssnapshot";
+	}
+
+	@Override
+	public String getCommandUsage(ICommandSender sender){
+		return "/mtssnapshot <export|import> <name> [radius]";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel(){
+		return 2;
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException{
+		if(args.length < 2 || !args[1].matches("[a-zA-Z0-9_\\-]+")){
+			throw new WrongUsageException(getCommandUsage(sender));
+		}
+		File snapshotFile = server.getFile(SNAPSHOT_FOLDER + File.separator + args[1] + SnapshotSystem.FILE_EXTENSION);
+		World world = sender.getEntityWorld();
+		long startTime = System.nanoTime();
+		try{
+			if(args[0].equals("export")){
+				int radius = args.length > 2 ? parseInt(args[2], 1, MAX_RADIUS) : DEFAULT_RADIUS;
+				List<EntityMultipartA_Base> multiparts = new ArrayList<EntityMultipartA_Base>();
+				for(Entity entity : world.loadedEntityList){
+					if(entity instanceof EntityMultipartA_Base && !entity.isDead && entity.getPositionVector().squareDistanceTo(sender.getPositionVector()) <= radius*radius){
+						multiparts.add((EntityMultipartA_Base) entity);
+					}
+				}
+				int exported = SnapshotSystem.exportMultiparts(snapshotFile, multiparts, sender.getPositionVector());
+				sender.addChatMessage(new TextComponentString("Exported " + exported + " multiparts to " + snapshotFile.getName() + " in " + (System.nanoTime() - startTime)/1000000 + " ms."));
+			}else if(args[0].equals("import")){
+				if(!snapshotFile.exists()){
+					throw new CommandException("No snapshot named " + args[1] + ".");
+				}
+				int imported = SnapshotSystem.importMultiparts(snapshotFile, world, sender.getPositionVector());
+				sender.addChatMessage(new TextComponentString("Imported " + imported + " multiparts from " + snapshotFile.getName() + " in " + (System.nanoTime() - startTime)/1000000 + " ms."));
+			}else{
+				throw new WrongUsageException(getCommandUsage(sender));
+			}
+		}catch(IOException e){
+			MTS.MTSLog.error("ERROR USING SNAPSHOT FILE " + snapshotFile.getAbsolutePath());
+			e.printStackTrace();
+			throw new CommandException("Error using snapshot " + args[1] + ": " + e.getMessage());
+		}
+	}
+}
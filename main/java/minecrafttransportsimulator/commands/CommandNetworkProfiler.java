@@ -0,0 +1,65 @@
+package minecrafttransportsimulator.commands;
+
+import java.io.File;
+import java.util.List;
+
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.NetworkProfilerSystem;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.command.WrongUsageException;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.text.TextComponentString;
+
+/**Command for the {@link NetworkProfilerSystem}.  With no arguments, shows the packet types that have
+ * used the most bytes.  Also turns the profiler on and off, resets its stats, and writes them to the CSV file.
+ *
+ * @author don_bruce
+ */
+public class CommandNetworkProfiler extends CommandBase{
+	/**Max number of packet types to show in chat.  All of them are in the CSV file.*/
+	private static final byte MAX_LINES = 10;
+
+	@Override
+	public String getCommandName(){
+		return "mtsnet";
+	}
+
+	@Override
+	public String getCommandUsage(ICommandSender sender){
+		return "/mtsnet [on|off|reset|dump]";
+	}
+
+	@Override
+	public int getRequiredPermissionLevel(){
+		return 2;
+	}
+
+	@Override
+	public void execute(MinecraftServer server, ICommandSender sender, String[] args) throws CommandException{
+		if(args.length == 0){
+			if(!NetworkProfilerSystem.isEnabled()){
+				sender.addChatMessage(new TextComponentString("Network profiler is off.  Use /mtsnet on to start it."));
+			}
+			List<String> lines = NetworkProfilerSystem.getSummary();
+			for(byte i=0; i<lines.size() && i<MAX_LINES; ++i){
+				sender.addChatMessage(new TextComponentString(lines.get(i)));
+			}
+			if(lines.isEmpty()){
+				sender.addChatMessage(new TextComponentString("No packets recorded."));
+			}
+		}else if(args[0].equals("on") || args[0].equals("off")){
+			ConfigSystem.setCommonConfig("NetworkProfiler", args[0].equals("on"));
+			sender.addChatMessage(new TextComponentString("Network profiler is " + args[0] + "."));
+		}else if(args[0].equals("reset")){
+			NetworkProfilerSystem.reset();
+			sender.addChatMessage(new TextComponentString("Network profiler stats reset."));
+		}else if(args[0].equals("dump")){
+			File csvFile = NetworkProfilerSystem.dumpToCSV();
+			sender.addChatMessage(new TextComponentString("Network profiler stats written to " + csvFile.getName() + "."));
+		}else{
+			throw new WrongUsageException(getCommandUsage(sender));
+		}
+	}
+}
@@ -48,6 +48,8 @@ import minecrafttransportsimulator.packets.multipart.PacketMultipartClientInitRe
 import minecrafttransportsimulator.packets.multipart.PacketMultipartClientPartAddition;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartClientPartRemoval;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartClientRemoval;
+import minecrafttransportsimulator.packets.multipart.PacketMultipartControlState;
+import minecrafttransportsimulator.packets.multipart.PacketMultipartDeltaBundle;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartDeltas;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartInstruments;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartKey;
@@ -64,6 +66,7 @@ import minecrafttransportsimulator.packets.tileentities.PacketFuelPumpConnection
 import minecrafttransportsimulator.packets.tileentities.PacketFuelPumpFillDrain;
 import minecrafttransportsimulator.packets.tileentities.PacketSignChange;
 import minecrafttransportsimulator.packets.tileentities.PacketTileEntityClientServerHandshake;
+import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
 import net.minecraft.block.Block;
 import net.minecraft.block.ITileEntityProvider;
@@ -285,8 +288,8 @@ public final class MTSRegistry{
 	 * the pack data stored in NBT is what makes for different vehicles.
 	 */
 	private static void initMultipartEntities(){
-		EntityRegistry.registerModEntity(EntityMultipartF_Car.class, "multipartcar", entityNumber++, MTS.MODID, 80, 5, false);
-		EntityRegistry.registerModEntity(EntityMultipartF_Plane.class, "multipartplane", entityNumber++, MTS.MODID, 80, 5, false);
+		EntityRegistry.registerModEntity(EntityMultipartF_Car.class, "multipartcar", entityNumber++, MTS.MODID, ConfigSystem.getIntegerConfig("CarViewDistance"), 5, false);
+		EntityRegistry.registerModEntity(EntityMultipartF_Plane.class, "multipartplane", entityNumber++, MTS.MODID, ConfigSystem.getIntegerConfig("PlaneViewDistance"), 5, false);
 	}
 	
 	private static void initPackets(){
@@ -324,6 +327,8 @@ public final class MTSRegistry{
 		registerPacket(PacketMultipartClientPartAddition.class, PacketMultipartClientPartAddition.Handler.class, true, false);
 		registerPacket(PacketMultipartClientPartRemoval.class, PacketMultipartClientPartRemoval.Handler.class, true, false);
 		registerPacket(PacketMultipartClientRemoval.class, PacketMultipartClientRemoval.Handler.class, true, false);
+		registerPacket(PacketMultipartControlState.class, PacketMultipartControlState.Handler.class, true, false);
+		registerPacket(PacketMultipartDeltaBundle.class, PacketMultipartDeltaBundle.Handler.class, true, false);
 		registerPacket(PacketMultipartDeltas.class, PacketMultipartDeltas.Handler.class, true, false);
 		registerPacket(PacketMultipartInstruments.class, PacketMultipartInstruments.Handler.class, true, true);
 		registerPacket(PacketMultipartKey.class, PacketMultipartKey.Handler.class, true, true);
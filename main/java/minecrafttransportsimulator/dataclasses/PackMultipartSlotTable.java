@@ -0,0 +1,273 @@
+package minecrafttransportsimulator.dataclasses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
+import minecrafttransportsimulator.systems.PackParserSystem;
+import net.minecraft.util.math.Vec3d;
+
+/**Pre-compiled table of every part slot a multipart pack can have.  This includes the main part slots,
+ * the additional part slots, and the sub-part slots that parts placed in those slots bring with them.
+ * Every slot gets an index, and every distinct slot position gets a position index that can be
+ * found from a part offset without looping over the pack.  Tables are built once per pack by the
+ * {@link PackParserSystem} and are shared between all multiparts that use that pack.
+ * Indexes depend on which part packs are installed, so only use them where both ends have the same table,
+ * such as packets after the checksums are checked.  Saves should use {@link #getPositionKey(double, double, double)},
+ * as position keys only depend on where the slot is.
+ *
+ * @author don_bruce
+ */
+public final class PackMultipartSlotTable{
+	/**Positions are snapped to this fraction of a block before lookup and in position keys.  Fine enough to never merge two real slots,
+	 * but coarse enough to ignore the floating-point errors that come from adding sub-part offsets.*/
+	private static final double POSITION_QUANTIZATION = 1024D;
+
+	/**Max depth for sub-parts on sub-parts.  Prevents bad packs from making infinite tables.*/
+	private static final int MAX_SUBPART_DEPTH = 4;
+
+	private final PackMultipartObject pack;
+	private final List<PackSlot> slots = new ArrayList<PackSlot>();
+	private final List<Vec3d> positions = new ArrayList<Vec3d>();
+	private final List<List<PackSlot>> slotsByPosition = new ArrayList<List<PackSlot>>();
+	/**Checksum of the slots in this table.  Tables with the same checksum give the same slot for the same index.*/
+	private final int checksum;
+
+	/**Open-addressed hash table that maps quantized position keys to position indexes.  Empty spots have an index of -1.*/
+	private long[] positionKeys = new long[16];
+	private int[] positionIndexes = new int[16];
+
+	public PackMultipartSlotTable(PackMultipartObject pack){
+		this.pack = pack;
+		Arrays.fill(positionIndexes, -1);
+
+		//Main parts go first so their slot index matches their index in the pack.
+		for(PackPart packPart : pack.parts){
+			addSlot(packPart, null, null);
+		}
+
+		//Additional parts go next.
+		for(int i=0; i<pack.parts.size(); ++i){
+			if(pack.parts.get(i).additionalPart != null){
+				addSlot(pack.parts.get(i).additionalPart, slots.get(i), null);
+			}
+		}
+
+		//Now add the sub-part slots for every part that could go into a slot.
+		//Done one level at a time so sub-parts on sub-parts get their slots too.
+		//Part packs are gone through by name so the order doesn't depend on the order packs were loaded in.
+		List<String> partNames = new ArrayList<String>(PackParserSystem.getAllPartPackNames());
+		Collections.sort(partNames);
+		int levelStart = 0;
+		for(int depth=0; depth<MAX_SUBPART_DEPTH && levelStart < slots.size(); ++depth){
+			int levelEnd = slots.size();
+			for(int i=levelStart; i<levelEnd; ++i){
+				PackSlot parentSlot = slots.get(i);
+				if(parentSlot.packPart.types != null){
+					for(String partName : partNames){
+						PackPartObject partPack = PackParserSystem.getPartPack(partName);
+						if(partPack.subParts != null && !partPack.subParts.isEmpty() && parentSlot.packPart.types.contains(partPack.general.type)){
+							for(PackPart subPack : partPack.subParts){
+								addSlot(getPackForSubPart(parentSlot.packPart, subPack), parentSlot, partName);
+							}
+						}
+					}
+				}
+			}
+			levelStart = levelEnd;
+		}
+		
+		int slotChecksum = slots.size();
+		for(PackSlot slot : slots){
+			slotChecksum = 31*slotChecksum + slot.pos.hashCode();
+			slotChecksum = 31*slotChecksum + (slot.parentPartName != null ? slot.parentPartName.hashCode() : 0);
+		}
+		this.checksum = slotChecksum;
+	}
+
+	public PackMultipartObject getPack(){
+		return pack;
+	}
+
+	/**Returns the checksum of this table.  Used to check that client and server tables match before sending slot indexes.*/
+	public int getChecksum(){
+		return checksum;
+	}
+
+	public int getSlotCount(){
+		return slots.size();
+	}
+
+	public PackSlot getSlot(int index){
+		return slots.get(index);
+	}
+
+	/**Returns all slots in index order.  This list may not be modified.*/
+	public List<PackSlot> getSlots(){
+		return Collections.unmodifiableList(slots);
+	}
+
+	public int getPositionCount(){
+		return positions.size();
+	}
+
+	public Vec3d getPosition(int positionIndex){
+		return positions.get(positionIndex);
+	}
+
+	/**Returns all slots at the passed-in position index in slot index order.  Main and additional slots always come first.*/
+	public List<PackSlot> getSlotsAtPosition(int positionIndex){
+		return slotsByPosition.get(positionIndex);
+	}
+
+	/**Returns the position index for the passed-in offset, or -1 if no slot is at that offset.*/
+	public int getPositionIndex(double offsetX, double offsetY, double offsetZ){
+		return getPositionIndex(getPositionKey(offsetX, offsetY, offsetZ));
+	}
+
+	/**Returns the position index for the passed-in position key, or -1 if no slot is at that position.*/
+	public int getPositionIndex(long key){
+		int mask = positionKeys.length - 1;
+		int hashIndex = getHashIndex(key, mask);
+		while(positionIndexes[hashIndex] != -1){
+			if(positionKeys[hashIndex] == key){
+				return positionIndexes[hashIndex];
+			}
+			hashIndex = (hashIndex + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void addSlot(PackPart packPart, PackSlot parentSlot, String parentPartName){
+		int positionIndex = getPositionIndex(packPart.pos[0], packPart.pos[1], packPart.pos[2]);
+		if(positionIndex == -1){
+			positionIndex = positions.size();
+			positions.add(new Vec3d(packPart.pos[0], packPart.pos[1], packPart.pos[2]));
+			slotsByPosition.add(new ArrayList<PackSlot>());
+			putPositionIndex(getPositionKey(packPart.pos[0], packPart.pos[1], packPart.pos[2]), positionIndex);
+		}
+		PackSlot slot = new PackSlot(slots.size(), positionIndex, packPart, positions.get(positionIndex), parentSlot, parentPartName);
+		slots.add(slot);
+		slotsByPosition.get(positionIndex).add(slot);
+	}
+
+	private void putPositionIndex(long key, int positionIndex){
+		//Keep the table at most half-full to keep probe chains short.
+		if((positions.size())*2 > positionKeys.length){
+			long[] oldKeys = positionKeys;
+			int[] oldIndexes = positionIndexes;
+			positionKeys = new long[oldKeys.length*2];
+			positionIndexes = new int[oldIndexes.length*2];
+			Arrays.fill(positionIndexes, -1);
+			for(int i=0; i<oldKeys.length; ++i){
+				if(oldIndexes[i] != -1){
+					putPositionIndex(oldKeys[i], oldIndexes[i]);
+				}
+			}
+		}
+		int mask = positionKeys.length - 1;
+		int hashIndex = getHashIndex(key, mask);
+		while(positionIndexes[hashIndex] != -1){
+			hashIndex = (hashIndex + 1) & mask;
+		}
+		positionKeys[hashIndex] = key;
+		positionIndexes[hashIndex] = positionIndex;
+	}
+
+	/**
+	 * Returns the position key for the passed-in offset.  Keys pack the snapped offset into one long, and are
+	 * the same for every table no matter which packs are installed.  Keys are never negative.  Only offsets
+	 * that pass {@link #canKeyPosition(double, double, double)} can be turned back into positions.
+	 */
+	public static long getPositionKey(double offsetX, double offsetY, double offsetZ){
+		return ((Math.round(offsetX*POSITION_QUANTIZATION) & 0x1FFFFFL) << 42) | ((Math.round(offsetY*POSITION_QUANTIZATION) & 0x1FFFFFL) << 21) | (Math.round(offsetZ*POSITION_QUANTIZATION) & 0x1FFFFFL);
+	}
+
+	/**Returns true if the passed-in offset fits in a position key.  Keys have 21 bits per axis, so this is about 1024 blocks each way.*/
+	public static boolean canKeyPosition(double offsetX, double offsetY, double offsetZ){
+		double maxOffset = 0xFFFFF/POSITION_QUANTIZATION;
+		return Math.abs(offsetX) < maxOffset && Math.abs(offsetY) < maxOffset && Math.abs(offsetZ) < maxOffset;
+	}
+
+	/**Returns the snapped offset for the passed-in position key.*/
+	public static Vec3d getPositionFromKey(long key){
+		return new Vec3d(getKeyAxis(key >>> 42)/POSITION_QUANTIZATION, getKeyAxis(key >>> 21)/POSITION_QUANTIZATION, getKeyAxis(key)/POSITION_QUANTIZATION);
+	}
+
+	private static long getKeyAxis(long keyBits){
+		//Shift the 21 axis bits to the top and back to get the sign back.
+		return (keyBits << 43) >> 43;
+	}
+
+	private static int getHashIndex(long key, int mask){
+		key *= 0x9E3779B97F4A7C15L;
+		return (int) (key ^ (key >>> 32)) & mask;
+	}
+
+	/**
+	 * Returns a PackPart with the correct properties for a SubPart.  This is because
+	 * subParts inherit some properties from their parent parts.
+	 */
+	private PackPart getPackForSubPart(PackPart parentPack, PackPart subPack){
+		PackPart correctPack = pack.new PackPart();
+		correctPack.pos = new float[3];
+		correctPack.pos[0] = parentPack.pos[0] >= 0 || parentPack.overrideMirror ? parentPack.pos[0] + subPack.pos[0] : parentPack.pos[0] - subPack.pos[0];
+		correctPack.pos[1] = parentPack.pos[1] + subPack.pos[1];
+		correctPack.pos[2] = parentPack.pos[2] + subPack.pos[2];
+
+		if(parentPack.rot != null || subPack.rot != null){
+			correctPack.rot = new float[3];
+		}
+		if(parentPack.rot != null){
+			correctPack.rot[0] += parentPack.rot[0];
+			correctPack.rot[1] += parentPack.rot[1];
+			correctPack.rot[2] += parentPack.rot[2];
+		}
+		if(subPack.rot != null){
+			correctPack.rot[0] += subPack.rot[0];
+			correctPack.rot[1] += subPack.rot[1];
+			correctPack.rot[2] += subPack.rot[2];
+		}
+
+		correctPack.turnsWithSteer = parentPack.turnsWithSteer;
+		correctPack.isController = subPack.isController;
+		correctPack.overrideMirror = parentPack.overrideMirror;
+		correctPack.types = subPack.types;
+		correctPack.customTypes = subPack.customTypes;
+		correctPack.minValue = subPack.minValue;
+		correctPack.maxValue = subPack.maxValue;
+		return correctPack;
+	}
+
+	public static final class PackSlot{
+		/**Stable index of this slot in the table.*/
+		public final int index;
+		/**Index of the position this slot is at.  Slots from different parent parts may share a position.*/
+		public final int positionIndex;
+		public final PackPart packPart;
+		public final Vec3d pos;
+		/**Slot this slot depends on.  Null for main slots.*/
+		public final PackSlot parentSlot;
+		/**Name of the part that must be in the parent slot for this slot to exist.  Null for main and additional slots.*/
+		public final String parentPartName;
+
+		private PackSlot(int index, int positionIndex, PackPart packPart, Vec3d pos, PackSlot parentSlot, String parentPartName){
+			this.index = index;
+			this.positionIndex = positionIndex;
+			this.packPart = packPart;
+			this.pos = pos;
+			this.parentSlot = parentSlot;
+			this.parentPartName = parentPartName;
+		}
+
+		public boolean isAdditionalSlot(){
+			return parentSlot != null && parentPartName == null;
+		}
+
+		public boolean isSubPartSlot(){
+			return parentPartName != null;
+		}
+	}
+}
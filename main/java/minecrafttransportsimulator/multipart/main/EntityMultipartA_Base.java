@@ -1,19 +1,23 @@
 package minecrafttransportsimulator.multipart.main;
 
-import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
-import com.google.common.collect.ImmutableList;
+import java.util.Set;
 
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
+import minecrafttransportsimulator.dataclasses.PackMultipartSlotTable;
+import minecrafttransportsimulator.dataclasses.PackMultipartSlotTable.PackSlot;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartClientInit;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartClientPartRemoval;
+import minecrafttransportsimulator.systems.MetricsSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
 import net.minecraft.entity.Entity;
 import net.minecraft.init.SoundEvents;
@@ -45,6 +49,12 @@ public abstract class EntityMultipartA_Base extends Entity{
 	 */
 	public String multipartJSONName="";
 	
+	/**Version of the NBT format multiparts are saved in.  Older versions are still read so old saves load.
+	 * Version 0 is the original format.  Version 1 saves parts and rider seats by slot position key, lights as bits,
+	 * and plane controls as an array.  Parts that aren't in a pack slot still save their offsets.
+	 */
+	public static final byte SAVE_VERSION = 1;
+	
 	/**The pack for this multipart.  This is set upon NBT load on the server, but needs a packet
 	 * to be present on the client.  Do NOT assume this will be valid simply because
 	 * the multipart has been loaded!
@@ -54,9 +64,46 @@ public abstract class EntityMultipartA_Base extends Entity{
 	/**This list contains all parts this multipart has.  Do NOT use it in loops or you will get CMEs all over!
 	 * Use the getMultipartsParts() method instead to return a loop-safe array.*/
 	private final List<APart> parts = new ArrayList<APart>();
+	
+	/**Loop-safe snapshot of the parts list.  Re-created only when a part is added or removed, so anyone
+	 * iterating an old snapshot won't see the change and won't get a CME.  Never modify this array!*/
+	private APart[] partsSnapshot = new APart[0];
+	
+	/**Version of the part set.  Incremented every time the snapshot is re-created.  Systems that cache
+	 * data based on what parts are present can compare against this to know when to re-build.*/
+	private int partsVersion = 0;
+	
+	/**Part NBT loaded from a save that hasn't been made into parts yet.  Parts are made the first time anything
+	 * asks for them, such as updates, rendering, or interaction, so multiparts that load where nobody uses them
+	 * don't pay to make parts.  Saved as-is until then.  Null once parts are made.*/
+	private List<NBTTagCompound> dormantPartTags;
+	
+	/**Cached typed views of the parts snapshot.  Keyed by the part class requested, and cleared whenever the part set changes.*/
+	private final Map<Class<? extends APart>, List<? extends APart>> typedPartViews = new HashMap<Class<? extends APart>, List<? extends APart>>();
+
+	/**Slot table for this multipart's pack.  Obtained from the {@link PackParserSystem} when first needed.*/
+	private PackMultipartSlotTable slotTable;
+	
+	/**Parts indexed by slot position index.  Null when the part set has changed and it needs to be re-built.*/
+	private APart[] partsByPosition;
+	
+	/**Cached result of {@link #getAllPossiblePackParts()}.  Null when the part set has changed and it needs to be re-built.*/
+	private Map<Vec3d, PackPart> possiblePackParts;
 
 	/**Cooldown byte to prevent packet spam requests during client-side loading of part packs.**/
 	private byte clientPackPacketCooldown = 0;
+	/**Time the first init request was sent, in nanoseconds.  Used to measure how long clients wait for multiparts to show up.*/
+	private long clientInitRequestTime;
+	
+	/**Multipart packs whose slot tables don't match the server's.  Only used on clients.  Part packets for multiparts
+	 * with these packs are sent with offsets, and the server is told to send offsets to us for them too.*/
+	private static final Set<String> mismatchedSlotTablePacks = new HashSet<String>();
+	
+	/**True while the client init tag is being written.  Parts are left out, as init responses send them on their own.*/
+	private boolean writingClientInitTag;
+	
+	/**Save version of the NBT this multipart was last loaded from.  Set before subclasses load, so they know which format to read.*/
+	protected byte loadedSaveVersion;
 	
 	public EntityMultipartA_Base(World world){
 		super(world);
@@ -79,6 +126,9 @@ public abstract class EntityMultipartA_Base extends Entity{
 			if(worldObj.isRemote){
 				if(clientPackPacketCooldown == 0){
 					clientPackPacketCooldown = 40;
+					if(clientInitRequestTime == 0){
+						clientInitRequestTime = System.nanoTime();
+					}
 					MTS.MTSNet.sendToServer(new PacketMultipartClientInit(this));
 				}else{
 					--clientPackPacketCooldown;
@@ -87,6 +137,96 @@ public abstract class EntityMultipartA_Base extends Entity{
 		}
 	}
 	
+	public long getClientInitRequestTime(){
+		return clientInitRequestTime;
+	}
+	
+	/**
+	 * Marks this client's slot table for this multipart's pack as not matching the server's.
+	 * Part packets for every multipart with this pack use offsets from then on.
+	 */
+	public void markSlotTableMismatched(){
+		mismatchedSlotTablePacks.add(multipartName);
+	}
+	
+	public boolean isSlotTableMismatched(){
+		return mismatchedSlotTablePacks.contains(multipartName);
+	}
+	
+	/**
+	 * Forgets which slot tables didn't match.  Called when the client's world unloads, as the next server may have other packs.
+	 */
+	public static void clearSlotTableMismatches(){
+		mismatchedSlotTablePacks.clear();
+	}
+	
+	/**
+	 * Returns the index of the slot at the passed-in offset for use in packets.
+	 * Returns -1 if there is no slot there, or if this is a client whose slot table doesn't match the server's,
+	 * in which case offsets should be sent.  Servers always give the index, as the network wrapper sends offsets
+	 * instead to the players that need them.
+	 */
+	public int getSlotIndexForPacket(double offsetX, double offsetY, double offsetZ){
+		return worldObj.isRemote && isSlotTableMismatched() ? -1 : getSlotIndex(offsetX, offsetY, offsetZ);
+	}
+	
+	/**
+	 * Returns the position of the slot with the passed-in index from a packet, or null if there's no such slot.
+	 */
+	public Vec3d getSlotPositionFromPacket(int slotIndex){
+		return getSlotPosition(slotIndex);
+	}
+	
+	/**
+	 * Returns the index of the slot at the passed-in offset, or -1 if there is no slot there.
+	 */
+	public int getSlotIndex(double offsetX, double offsetY, double offsetZ){
+		if(pack != null){
+			PackSlot slot = getSlotForLocation(offsetX, offsetY, offsetZ);
+			if(slot != null){
+				return slot.index;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the position of the slot with the passed-in index, or null if there's no such slot.
+	 */
+	public Vec3d getSlotPosition(int slotIndex){
+		if(pack != null && slotIndex >= 0 && slotIndex < getSlotTable().getSlotCount()){
+			return getSlotTable().getSlot(slotIndex).pos;
+		}else{
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the position key to save for something at the passed-in offset, or -1 if it isn't in a pack slot.
+	 * Things that aren't in a slot should save their full offset instead.
+	 */
+	protected long getSlotKeyForSave(Vec3d offset){
+		if(getSlotIndex(offset.xCoord, offset.yCoord, offset.zCoord) != -1 && PackMultipartSlotTable.canKeyPosition(offset.xCoord, offset.yCoord, offset.zCoord)){
+			return PackMultipartSlotTable.getPositionKey(offset.xCoord, offset.yCoord, offset.zCoord);
+		}else{
+			return -1;
+		}
+	}
+	
+	/**
+	 * Returns the offset for the passed-in saved position key.  This is the exact slot position if there's a slot there,
+	 * or the position in the key if not.  Never null, so things are put back where they were even if the pack has changed.
+	 */
+	public Vec3d getSlotKeyPosition(long key){
+		if(pack != null){
+			int positionIndex = getSlotTable().getPositionIndex(key);
+			if(positionIndex != -1){
+				return getSlotTable().getPosition(positionIndex);
+			}
+		}
+		return PackMultipartSlotTable.getPositionFromKey(key);
+	}
+	
 	@Override
 	public void setDead(){
 		super.setDead();
@@ -102,7 +242,9 @@ public abstract class EntityMultipartA_Base extends Entity{
     }
 	
 	public void addPart(APart part, boolean ignoreCollision){
+		materializeParts();
 		parts.add(part);
+		updatePartsSnapshot();
 		if(!ignoreCollision){
 			//Check for collision, and boost if needed.
 			if(part.isPartCollidingWithBlocks(Vec3d.ZERO)){
@@ -117,8 +259,10 @@ public abstract class EntityMultipartA_Base extends Entity{
 	}
 	
 	public void removePart(APart part, boolean playBreakSound){
+		materializeParts();
 		if(parts.contains(part)){
 			parts.remove(part);
+			updatePartsSnapshot();
 			if(part.isValid()){
 				part.removePart();
 				if(!worldObj.isRemote){
@@ -133,19 +277,69 @@ public abstract class EntityMultipartA_Base extends Entity{
 		}
 	}
 	
+	/**
+	 * Re-creates the part snapshot and bumps the part version.
+	 * Must be called every time the parts list changes.
+	 */
+	private void updatePartsSnapshot(){
+		partsSnapshot = parts.toArray(new APart[parts.size()]);
+		++partsVersion;
+		typedPartViews.clear();
+		partsByPosition = null;
+		possiblePackParts = null;
+	}
+	
 	/**
 	 * Returns a loop-safe array for iterating over parts.
 	 * Use this for everything that needs to look at parts.
+	 * This array is shared, so do NOT modify it!
 	 */
 	public APart[] getMultipartParts(){
-		return ImmutableList.copyOf(parts).toArray(new APart[parts.size()]);
+		materializeParts();
+		return partsSnapshot;
+	}
+	
+	/**
+	 * Returns a loop-safe, read-only list of all parts that are instances of the passed-in class.
+	 * The list is cached until the part set changes, so calling this every tick is cheap.
+	 */
+	@SuppressWarnings("unchecked")
+	public <PartType extends APart> List<PartType> getMultipartPartsOfType(Class<PartType> partClass){
+		List<PartType> typedParts = (List<PartType>) typedPartViews.get(partClass);
+		if(typedParts == null){
+			List<PartType> matchingParts = new ArrayList<PartType>();
+			for(APart part : getMultipartParts()){
+				if(partClass.isInstance(part)){
+					matchingParts.add((PartType) part);
+				}
+			}
+			typedParts = Collections.unmodifiableList(matchingParts);
+			typedPartViews.put(partClass, typedParts);
+		}
+		return typedParts;
+	}
+	
+	/**
+	 * Returns the current version of the part set.
+	 * This changes every time a part is added or removed.
+	 */
+	public int getPartsVersion(){
+		materializeParts();
+		return partsVersion;
 	}
 	
 	/**
 	 * Gets the part at the specified location.
 	 */
 	public APart getPartAtLocation(double offsetX, double offsetY, double offsetZ){
-		for(APart part : this.parts){
+		if(pack != null){
+			int positionIndex = getSlotTable().getPositionIndex(offsetX, offsetY, offsetZ);
+			if(positionIndex != -1){
+				return getPartsByPosition()[positionIndex];
+			}
+		}
+		//Not a slot position.  Check the parts just in case one got placed somewhere the pack doesn't know about.
+		for(APart part : this.getMultipartParts()){
 			if(part.offset.xCoord == offsetX && part.offset.yCoord == offsetY && part.offset.zCoord == offsetZ){
 				return part;
 			}
@@ -158,107 +352,90 @@ public abstract class EntityMultipartA_Base extends Entity{
 	 * and extra parts of parts on other parts.  Map returned is the position of the
 	 * part positions and the part pack information at those positions.
 	 * Note that additional parts will not be added if no part is present
-	 * in the primary location.
+	 * in the primary location.  The map is cached until the part set changes,
+	 * so do NOT modify it!
 	 */
 	public Map<Vec3d, PackPart> getAllPossiblePackParts(){
-		Map<Vec3d, PackPart> packParts = new HashMap<Vec3d, PackPart>();
-		//First get all the regular part spots.
-		for(PackPart packPart : pack.parts){
-			Vec3d partPos = new Vec3d(packPart.pos[0], packPart.pos[1], packPart.pos[2]);
-			packParts.put(partPos, packPart);
-			
-			//Check to see if we can put an additional part in this location.
-			if(packPart.additionalPart != null){
-				for(APart part : this.parts){
-					if(part.offset.equals(partPos)){
-						packParts.put(new Vec3d(packPart.additionalPart.pos[0], packPart.additionalPart.pos[1], packPart.additionalPart.pos[2]), packPart.additionalPart);
-						break;
+		if(possiblePackParts == null){
+			PackMultipartSlotTable slotTable = getSlotTable();
+			APart[] partsByPosition = getPartsByPosition();
+			Map<Vec3d, PackPart> packParts = new LinkedHashMap<Vec3d, PackPart>();
+			for(int positionIndex=0; positionIndex<slotTable.getPositionCount(); ++positionIndex){
+				PackSlot slot = getActiveSlotAtPosition(positionIndex);
+				if(slot != null){
+					//Additional parts only show up if there's a part in their primary location.
+					if(!slot.isAdditionalSlot() || partsByPosition[slot.parentSlot.positionIndex] != null){
+						packParts.put(slot.pos, slot.packPart);
 					}
-				}				
-			}
-		}
-		
-		//Next get any sub parts on parts that are present.
-		for(APart part : this.parts){
-			if(part.isValid() && part.pack.subParts != null){
-				PackPart parentPack = getPackDefForLocation(part.offset.xCoord, part.offset.yCoord, part.offset.zCoord);
-				for(PackPart extraPackPart : part.pack.subParts){
-					PackPart correctedPack = getPackForSubPart(parentPack, extraPackPart);
-					packParts.put(new Vec3d(correctedPack.pos[0], correctedPack.pos[1], correctedPack.pos[2]), correctedPack);
 				}
 			}
-			
+			possiblePackParts = Collections.unmodifiableMap(packParts);
 		}
-		return packParts;
+		return possiblePackParts;
 	}
 	
 	/**
 	 * Gets the pack definition at the specified location.
 	 */
 	public PackPart getPackDefForLocation(double offsetX, double offsetY, double offsetZ){
-		//Check to see if this is a main part.
-		for(PackPart packPart : pack.parts){
-			if(packPart.pos[0] == offsetX && packPart.pos[1] == offsetY && packPart.pos[2] == offsetZ){
-				return packPart;
-			}
-			
-			//Not a main part.  Check if this is an additional part.
-			if(packPart.additionalPart != null){
-				if(packPart.additionalPart.pos[0] == offsetX && packPart.additionalPart.pos[1] == offsetY && packPart.additionalPart.pos[2] == offsetZ){
-					return packPart.additionalPart;
-				}
-			}
+		PackSlot slot = getSlotForLocation(offsetX, offsetY, offsetZ);
+		return slot != null ? slot.packPart : null;
+	}
+	
+	/**
+	 * Gets the pack slot at the specified location.  Main and additional slots are always returned.
+	 * Sub-part slots are only returned if the part they come from is present.
+	 */
+	public PackSlot getSlotForLocation(double offsetX, double offsetY, double offsetZ){
+		int positionIndex = getSlotTable().getPositionIndex(offsetX, offsetY, offsetZ);
+		return positionIndex != -1 ? getActiveSlotAtPosition(positionIndex) : null;
+	}
+	
+	/**
+	 * Returns the slot table for this multipart's pack.
+	 */
+	public PackMultipartSlotTable getSlotTable(){
+		if(slotTable == null || slotTable.getPack() != pack){
+			slotTable = PackParserSystem.getMultipartSlotTable(pack);
+			partsByPosition = null;
+			possiblePackParts = null;
 		}
-		
-		//If this is not a main part or an additional part, check the sub-parts.
-		for(APart part : this.parts){
-			if(part.isValid() && part.pack.subParts.size() > 0){
-				PackPart parentPack = getPackDefForLocation(part.offset.xCoord, part.offset.yCoord, part.offset.zCoord);
-				for(PackPart extraPackPart : part.pack.subParts){
-					PackPart correctedPack = getPackForSubPart(parentPack, extraPackPart);
-					if(correctedPack.pos[0] == offsetX && correctedPack.pos[1] == offsetY && correctedPack.pos[2] == offsetZ){
-						return correctedPack;
-					}
+		return slotTable;
+	}
+	
+	/**
+	 * Returns the first active slot at the passed-in position index, or null if none are active.
+	 * Sub-part slots are active if the part in their parent slot is valid and is the part they came from.
+	 */
+	private PackSlot getActiveSlotAtPosition(int positionIndex){
+		for(PackSlot slot : getSlotTable().getSlotsAtPosition(positionIndex)){
+			if(!slot.isSubPartSlot()){
+				return slot;
+			}else{
+				APart parentPart = getPartsByPosition()[slot.parentSlot.positionIndex];
+				if(parentPart != null && parentPart.isValid() && parentPart.partName.equals(slot.parentPartName) && getActiveSlotAtPosition(slot.parentSlot.positionIndex) == slot.parentSlot){
+					return slot;
 				}
 			}
 		}
-		
 		return null;
 	}
 	
 	/**
-	 * Returns a PackPart with the correct properties for a SubPart.  This is because
-	 * subParts inherit some properties from their parent parts. 
+	 * Returns an array of parts indexed by slot position index.  Re-built when the part set changes.
 	 */
-	private PackPart getPackForSubPart(PackPart parentPack, PackPart subPack){
-		PackPart correctPack = this.pack.new PackPart();
-		correctPack.pos = new float[3];
-		correctPack.pos[0] = parentPack.pos[0] >= 0 || parentPack.overrideMirror ? parentPack.pos[0] + subPack.pos[0] : parentPack.pos[0] - subPack.pos[0];
-		correctPack.pos[1] = parentPack.pos[1] + subPack.pos[1];
-		correctPack.pos[2] = parentPack.pos[2] + subPack.pos[2];
-		
-		if(parentPack.rot != null || subPack.rot != null){
-			correctPack.rot = new float[3];
-		}
-		if(parentPack.rot != null){
-			correctPack.rot[0] += parentPack.rot[0];
-			correctPack.rot[1] += parentPack.rot[1];
-			correctPack.rot[2] += parentPack.rot[2];
-		}
-		if(subPack.rot != null){
-			correctPack.rot[0] += subPack.rot[0];
-			correctPack.rot[1] += subPack.rot[1];
-			correctPack.rot[2] += subPack.rot[2];
+	private APart[] getPartsByPosition(){
+		if(partsByPosition == null){
+			PackMultipartSlotTable slotTable = getSlotTable();
+			partsByPosition = new APart[slotTable.getPositionCount()];
+			for(APart part : getMultipartParts()){
+				int positionIndex = slotTable.getPositionIndex(part.offset.xCoord, part.offset.yCoord, part.offset.zCoord);
+				if(positionIndex != -1){
+					partsByPosition[positionIndex] = part;
+				}
+			}
 		}
-		
-		correctPack.turnsWithSteer = parentPack.turnsWithSteer;
-		correctPack.isController = subPack.isController;
-		correctPack.overrideMirror = parentPack.overrideMirror;
-		correctPack.types = subPack.types;
-		correctPack.customTypes = subPack.customTypes;
-		correctPack.minValue = subPack.minValue;
-		correctPack.maxValue = subPack.maxValue;
-		return correctPack;
+		return partsByPosition;
 	}
 			
     @Override
@@ -267,48 +444,107 @@ public abstract class EntityMultipartA_Base extends Entity{
 		this.multipartName = tagCompound.getString("multipartName");
 		this.multipartJSONName = PackParserSystem.getMultipartJSONName(multipartName);
 		this.pack = PackParserSystem.getMultipartPack(multipartName);
+		this.loadedSaveVersion = tagCompound.getByte("saveVersion");
 		
-		if(this.parts.size() == 0){
+		//Parts aren't made here.  Their NBT is kept until something needs them.
+		if(this.parts.size() == 0 && dormantPartTags == null){
 			NBTTagList partTagList = tagCompound.getTagList("Parts", 10);
+			dormantPartTags = new ArrayList<NBTTagCompound>(partTagList.tagCount());
 			for(byte i=0; i<partTagList.tagCount(); ++i){
+				dormantPartTags.add(partTagList.getCompoundTagAt(i));
+			}
+		}
+	}
+	
+	/**
+	 * Makes parts from the NBT kept when this multipart was loaded, if that hasn't been done yet.
+	 * Called by everything that looks at parts, so nothing ever sees a multipart without its parts.
+	 */
+	private void materializeParts(){
+		if(dormantPartTags != null){
+			List<NBTTagCompound> partTags = dormantPartTags;
+			dormantPartTags = null;
+			for(NBTTagCompound partTag : partTags){
 				try{
-					NBTTagCompound partTag = partTagList.getCompoundTagAt(i);
+					if(partTag.hasKey("slotKey")){
+						//Saved by slot.  Put the offsets back so the part's position is found the same way as old saves.
+						//Copy the tag first, as it may be shared with a chunk that's waiting to be written.
+						Vec3d slotPosition = getSlotKeyPosition(partTag.getLong("slotKey"));
+						partTag = partTag.copy();
+						partTag.removeTag("slotKey");
+						partTag.setDouble("offsetX", slotPosition.xCoord);
+						partTag.setDouble("offsetY", slotPosition.yCoord);
+						partTag.setDouble("offsetZ", slotPosition.zCoord);
+					}
 					PackPart packPart = getPackDefForLocation(partTag.getDouble("offsetX"), partTag.getDouble("offsetY"), partTag.getDouble("offsetZ"));
-					Class<? extends APart> partClass = PackParserSystem.getPartPartClass(partTag.getString("partName"));
-					Constructor<? extends APart> construct = partClass.getConstructor(EntityMultipartD_Moving.class, PackPart.class, String.class, NBTTagCompound.class);
-					APart savedPart = construct.newInstance((EntityMultipartD_Moving) this, packPart, partTag.getString("partName"), partTag);
+					APart savedPart = PackParserSystem.createPart((EntityMultipartD_Moving) this, packPart, partTag.getString("partName"), partTag);
 					this.addPart(savedPart, true);
 				}catch(Exception e){
 					MTS.MTSLog.error("ERROR IN LOADING PART FROM NBT!");
 					e.printStackTrace();
 				}
 			}
+			MetricsSystem.increment("multipartsMaterialized");
 		}
 	}
+	
+	public boolean arePartsDormant(){
+		return dormantPartTags != null;
+	}
     
 	@Override
 	public NBTTagCompound writeToNBT(NBTTagCompound tagCompound){
 		super.writeToNBT(tagCompound);
 		tagCompound.setString("multipartName", this.multipartName);
+		tagCompound.setByte("saveVersion", SAVE_VERSION);
+		if(writingClientInitTag){
+			return tagCompound;
+		}
 		
 		NBTTagList partTagList = new NBTTagList();
-		for(APart part : this.getMultipartParts()){
-			//Don't save the part if it's not valid.
-			if(part.isValid()){
-				NBTTagCompound partTag = part.getPartNBTTag();
-				//We need to set some extra data here for the part to allow this multipart to know where it went.
-				//This only gets set here during saving/loading, and is NOT returned in the item that comes from the part.
-				partTag.setString("partName", part.partName);
-				partTag.setDouble("offsetX", part.offset.xCoord);
-				partTag.setDouble("offsetY", part.offset.yCoord);
-				partTag.setDouble("offsetZ", part.offset.zCoord);
+		if(dormantPartTags != null){
+			//Parts haven't been made, so nothing about them can have changed.  Save them as they were loaded.
+			for(NBTTagCompound partTag : dormantPartTags){
 				partTagList.appendTag(partTag);
 			}
+		}else{
+			for(APart part : this.getMultipartParts()){
+				//Don't save the part if it's not valid.
+				if(part.isValid()){
+					NBTTagCompound partTag = part.getPartNBTTag();
+					//We need to set some extra data here for the part to allow this multipart to know where it went.
+					//This only gets set here during saving/loading, and is NOT returned in the item that comes from the part.
+					//Parts in a pack slot only need the slot position key.  Parts elsewhere need their full offset.
+					partTag.setString("partName", part.partName);
+					long slotKey = getSlotKeyForSave(part.offset);
+					if(slotKey != -1){
+						partTag.setLong("slotKey", slotKey);
+					}else{
+						partTag.setDouble("offsetX", part.offset.xCoord);
+						partTag.setDouble("offsetY", part.offset.yCoord);
+						partTag.setDouble("offsetZ", part.offset.zCoord);
+					}
+					partTagList.appendTag(partTag);
+				}
+			}
 		}
 		tagCompound.setTag("Parts", partTagList);
 		return tagCompound;
 	}
 	
+	/**
+	 * Returns the NBT clients are sent when they first see this multipart.  This is the saved NBT without
+	 * the part list, unless a subclass needs clients to start from a different state than the one that's saved.
+	 */
+	public NBTTagCompound getClientInitTag(){
+		writingClientInitTag = true;
+		try{
+			return writeToNBT(new NBTTagCompound());
+		}finally{
+			writingClientInitTag = false;
+		}
+	}
+	
 	//Junk methods, forced to pull in.
 	protected void entityInit(){}
 	protected void readEntityFromNBT(NBTTagCompound p_70037_1_){}
@@ -1,7 +1,12 @@
 package minecrafttransportsimulator.multipart.main;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import javax.annotation.Nullable;
 
@@ -9,6 +14,7 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 
 import minecrafttransportsimulator.MTS;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartCrate;
@@ -17,6 +23,7 @@ import minecrafttransportsimulator.packets.multipart.PacketMultipartWindowBreak;
 import minecrafttransportsimulator.packets.parts.PacketPartInteraction;
 import minecrafttransportsimulator.packets.parts.PacketPartSeatRiderChange;
 import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
 import minecrafttransportsimulator.systems.RotationSystem;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
@@ -26,13 +33,18 @@ import net.minecraft.init.SoundEvents;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagLong;
 import net.minecraft.util.DamageSource;
 import net.minecraft.util.EnumHand;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraftforge.event.entity.EntityMountEvent;
+import net.minecraftforge.event.world.BlockEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.common.ObfuscationReflectionHelper;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -60,6 +72,41 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 	public String displayText="";
 	public Vec3d headingVec = Vec3d.ZERO;
 	
+	/**Rotation matrix for the current orientation.  Re-made the first time it's requested after the angles change.
+	 * Matrixes are immutable, so this is safe to read from any thread.*/
+	private volatile RotationMatrix rotationMatrix = RotationMatrix.IDENTITY;
+	
+	/**Cached mass from the parts, crates, and riders.  Only re-calculated when one of those changes.*/
+	private float cachedMass;
+	private boolean massDirty = true;
+	private int massPartsVersion = -1;
+	/**Rider inventories don't tell us when they change, so we re-check them at this interval in ticks.*/
+	private static final int RIDER_MASS_CHECK_INTERVAL = 20;
+	
+	/**True if this multipart is sleeping.  Sleeping multiparts skip their updates entirely until woken.*/
+	private boolean sleeping;
+	/**Number of ticks in a row this multipart could have slept.  Once this hits the SleepDelay config we go to sleep.*/
+	private int idleTicks;
+	/**Parts version when we went to sleep.  If parts change we need to wake up.*/
+	private int sleepPartsVersion;
+	/**Sleeping multiparts for each server world, by chunk.  Used to wake multiparts when blocks near them change.
+	 * Multiparts are put in every chunk within reach of their box, so block changes only need to check their own chunk.
+	 * Sets are weak so multiparts in unloaded chunks don't stick around.  Only touched on the server thread, as
+	 * even reads change a WeakHashMap and the client thread would race the integrated server.*/
+	private static final Map<World, Map<ChunkPos, Set<EntityMultipartB_Existing>>> sleepingMultiparts = new WeakHashMap<World, Map<ChunkPos, Set<EntityMultipartB_Existing>>>();
+	/**Blocks past our box that changes still wake us.  Block changes check a block around themselves,
+	 * so this needs to cover that block as well as the changed one.*/
+	private static final double SLEEP_WAKE_RANGE = 2.0D;
+	/**Chunks we are in the sleeping map for.  Kept so we come out of the right ones even if we've been moved.*/
+	private final List<ChunkPos> sleepingChunks = new ArrayList<ChunkPos>();
+	
+	/**NBT from the last time we were saved while sleeping.  Sleeping multiparts and their parts can't change without
+	 * waking up or calling {@link #markNBTDirty()}, so saves re-use this rather than writing everything again.
+	 * Tags in here are shared with saved chunks, so never modify them!*/
+	private NBTTagCompound cachedNBT;
+	/**Parts version when the NBT was cached.  If parts change the cache is out of date.*/
+	private int cachedNBTPartsVersion;
+	
 	/**Cached map that links entity IDs to the seats riding them.  Used for mounting/dismounting functions.*/
 	private final BiMap<Integer, PartSeat> riderSeats = HashBiMap.create();
 	
@@ -90,6 +137,30 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		this.displayText = pack.rendering.defaultDisplayText;
 	}
 	
+	@Override
+	public void onUpdate(){
+		if(sleeping){
+			//Only things that can change without telling us are checked here.  Everything else calls wakeUp().
+			if(this.getPassengers().isEmpty() && sleepPartsVersion == this.getPartsVersion()){
+				if(!worldObj.isRemote){
+					MetricsSystem.increment("multipartsSleeping");
+				}
+				return;
+			}
+			wakeUp();
+		}
+		super.onUpdate();
+		
+		int sleepDelay = ConfigSystem.getIntegerConfig("SleepDelay");
+		if(sleepDelay > 0 && canSleep()){
+			if(++idleTicks >= sleepDelay){
+				goToSleep();
+			}
+		}else{
+			idleTicks = 0;
+		}
+	}
+	
 	@Override
 	public void onEntityUpdate(){
 		super.onEntityUpdate();
@@ -112,8 +183,142 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		didRiderClickSeat = false;
 	}
 	
+	/**
+	 * Returns true if this multipart could go to sleep this tick.  Multiparts can only sleep if
+	 * they have no riders and didn't move this tick.  Sub-classes should add their own conditions
+	 * for things that need updates, like running engines.
+	 */
+	protected boolean canSleep(){
+		return pack != null && !isDead && this.getPassengers().isEmpty() && riderIDToDismountThisTick == -1
+				&& Math.abs(posX - prevPosX) < 0.001 && Math.abs(posY - prevPosY) < 0.001 && Math.abs(posZ - prevPosZ) < 0.001
+				&& Math.abs(rotationYaw - prevRotationYaw) < 0.01 && Math.abs(rotationPitch - prevRotationPitch) < 0.01 && Math.abs(rotationRoll - prevRotationRoll) < 0.01;
+	}
+	
+	/**
+	 * Puts this multipart to sleep.  Prior positions are set to the current ones so rendering doesn't jitter.
+	 */
+	protected void goToSleep(){
+		sleeping = true;
+		sleepPartsVersion = this.getPartsVersion();
+		lastTickPosX = prevPosX = posX;
+		lastTickPosY = prevPosY = posY;
+		lastTickPosZ = prevPosZ = posZ;
+		prevRotationYaw = rotationYaw;
+		prevRotationPitch = rotationPitch;
+		prevRotationRoll = rotationRoll;
+		motionX = 0;
+		motionY = 0;
+		motionZ = 0;
+		if(!worldObj.isRemote){
+			Map<ChunkPos, Set<EntityMultipartB_Existing>> worldSleepingMultiparts = sleepingMultiparts.get(worldObj);
+			if(worldSleepingMultiparts == null){
+				worldSleepingMultiparts = new HashMap<ChunkPos, Set<EntityMultipartB_Existing>>();
+				sleepingMultiparts.put(worldObj, worldSleepingMultiparts);
+			}
+			AxisAlignedBB wakeBox = this.getEntityBoundingBox().expandXyz(SLEEP_WAKE_RANGE);
+			for(int chunkX=MathHelper.floor_double(wakeBox.minX) >> 4; chunkX<=MathHelper.floor_double(wakeBox.maxX) >> 4; ++chunkX){
+				for(int chunkZ=MathHelper.floor_double(wakeBox.minZ) >> 4; chunkZ<=MathHelper.floor_double(wakeBox.maxZ) >> 4; ++chunkZ){
+					ChunkPos chunkPos = new ChunkPos(chunkX, chunkZ);
+					Set<EntityMultipartB_Existing> chunkSleepingMultiparts = worldSleepingMultiparts.get(chunkPos);
+					if(chunkSleepingMultiparts == null){
+						chunkSleepingMultiparts = Collections.newSetFromMap(new WeakHashMap<EntityMultipartB_Existing, Boolean>());
+						worldSleepingMultiparts.put(chunkPos, chunkSleepingMultiparts);
+					}
+					chunkSleepingMultiparts.add(this);
+					sleepingChunks.add(chunkPos);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Wakes this multipart up if it is sleeping, and resets the idle timer.
+	 * Call this whenever something happens to this multipart that could make it move or need updates.
+	 */
+	public void wakeUp(){
+		idleTicks = 0;
+		markNBTDirty();
+		if(sleeping){
+			sleeping = false;
+			if(!worldObj.isRemote){
+				Map<ChunkPos, Set<EntityMultipartB_Existing>> worldSleepingMultiparts = sleepingMultiparts.get(worldObj);
+				if(worldSleepingMultiparts != null){
+					for(ChunkPos chunkPos : sleepingChunks){
+						Set<EntityMultipartB_Existing> chunkSleepingMultiparts = worldSleepingMultiparts.get(chunkPos);
+						if(chunkSleepingMultiparts != null){
+							chunkSleepingMultiparts.remove(this);
+							if(chunkSleepingMultiparts.isEmpty()){
+								worldSleepingMultiparts.remove(chunkPos);
+							}
+						}
+					}
+				}
+				sleepingChunks.clear();
+			}
+		}
+	}
+	
+	public boolean isSleeping(){
+		return sleeping;
+	}
+	
+	/**
+	 * Wakes this multipart up if something else moves it while it's sleeping, like a teleport command.
+	 * Otherwise the cached NBT would still have the old position.
+	 */
+	@Override
+	public void setPosition(double x, double y, double z){
+		boolean moved = x != posX || y != posY || z != posZ;
+		super.setPosition(x, y, z);
+		if(sleeping && moved){
+			wakeUp();
+		}
+	}
+	
+	/**
+	 * Marks the cached NBT as out of date.  Call this whenever something that gets saved changes
+	 * without waking this multipart up, such as crate contents or fuel from a pump.
+	 */
+	public void markNBTDirty(){
+		cachedNBT = null;
+	}
+	
+	/**
+	 * Called when chunks are saved.  Sleeping multiparts save their NBT once and re-use it
+	 * on later saves until something changes, so parked multiparts cost almost nothing to save.
+	 * Time spent saving multiparts is kept in the {@link MetricsSystem}.
+	 */
+	@Override
+	public boolean writeToNBTOptional(NBTTagCompound tagCompound){
+		long startTime = System.nanoTime();
+		boolean saved;
+		if(sleeping && cachedNBT != null && cachedNBTPartsVersion == this.getPartsVersion()){
+			for(String key : cachedNBT.getKeySet()){
+				tagCompound.setTag(key, cachedNBT.getTag(key));
+			}
+			saved = true;
+			MetricsSystem.increment("multipartSavesCached");
+		}else{
+			saved = super.writeToNBTOptional(tagCompound);
+			if(saved && sleeping){
+				cachedNBT = tagCompound.copy();
+				cachedNBTPartsVersion = this.getPartsVersion();
+			}
+		}
+		MetricsSystem.add("multipartSaveNanos", System.nanoTime() - startTime);
+		MetricsSystem.increment("multipartSaves");
+		return saved;
+	}
+	
+	@Override
+	public void setDead(){
+		wakeUp();
+		super.setDead();
+	}
+	
 	@Override
     public boolean processInitialInteract(EntityPlayer player, @Nullable ItemStack stack, EnumHand hand){
+		wakeUp();
 		//In all cases, interaction will be handled on the client and forwarded to the server.
 		//However, there is one case where we can't forward an event, and that is if a player
 		//right-clicks this with an empty hand.
@@ -130,6 +335,7 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 	
 	@Override
 	public boolean attackEntityFrom(DamageSource source, float damage){
+		wakeUp();
 		if(!worldObj.isRemote){
 			if(source.getSourceOfDamage() != null && !source.getSourceOfDamage().equals(source.getEntity())){
 				//This is a projectile of some sort.  If this projectile is inside a part
@@ -169,6 +375,40 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		return true;
 	}
 	
+	/**
+	 * Wakes up any sleeping multiparts next to a block that changed.
+	 * The block may have been holding the multipart up, or may now be in its way.
+	 * Clients don't track sleeping multiparts, as servers tell them when multiparts start moving.
+	 */
+	@SubscribeEvent
+	public static void on(BlockEvent.NeighborNotifyEvent event){
+		if(event.getWorld().isRemote){
+			return;
+		}
+		Map<ChunkPos, Set<EntityMultipartB_Existing>> worldSleepingMultiparts = sleepingMultiparts.get(event.getWorld());
+		if(worldSleepingMultiparts != null){
+			Set<EntityMultipartB_Existing> chunkSleepingMultiparts = worldSleepingMultiparts.get(new ChunkPos(event.getPos()));
+			if(chunkSleepingMultiparts != null){
+				//Waking takes multiparts out of the set, so find them all first.  Normally there are none to wake.
+				AxisAlignedBB blockBox = new AxisAlignedBB(event.getPos()).expandXyz(1.0D);
+				List<EntityMultipartB_Existing> multipartsToWake = null;
+				for(EntityMultipartB_Existing multipart : chunkSleepingMultiparts){
+					if(multipart.getEntityBoundingBox().intersectsWith(blockBox)){
+						if(multipartsToWake == null){
+							multipartsToWake = new ArrayList<EntityMultipartB_Existing>();
+						}
+						multipartsToWake.add(multipart);
+					}
+				}
+				if(multipartsToWake != null){
+					for(EntityMultipartB_Existing multipart : multipartsToWake){
+						multipart.wakeUp();
+					}
+				}
+			}
+		}
+	}
+	
 	/**
 	 * Prevent dismounting from this multipart naturally as MC sucks at finding good spots to dismount.
 	 * Instead, chose a better spot manually to prevent the player from getting stuck inside things.
@@ -197,7 +437,7 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 	public void updatePassenger(Entity passenger){
 		PartSeat seat = this.getSeatForRider(passenger);
 		if(seat != null){
-			Vec3d posVec = RotationSystem.getRotatedPoint(seat.offset.addVector(0, -seat.getHeight()/2F + passenger.getYOffset() + passenger.height, 0), this.rotationPitch, this.rotationYaw, this.rotationRoll);
+			Vec3d posVec = getRotationMatrix().rotate(seat.offset.addVector(0, -seat.getHeight()/2F + passenger.getYOffset() + passenger.height, 0));
 			passenger.setPosition(this.posX + posVec.xCoord, this.posY + posVec.yCoord - passenger.height, this.posZ + posVec.zCoord);
 			passenger.motionX = this.motionX;
 			passenger.motionY = this.motionY;
@@ -291,9 +531,9 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 			Vec3d placePosition;
 			PackPart packPart = this.getPackDefForLocation(seat.offset.xCoord, seat.offset.yCoord, seat.offset.zCoord);
 			if(packPart.dismountPos != null){
-				placePosition = RotationSystem.getRotatedPoint(new Vec3d(packPart.dismountPos[0], packPart.dismountPos[1], packPart.dismountPos[2]), this.rotationPitch, this.rotationYaw, this.rotationRoll).add(this.getPositionVector());
+				placePosition = getRotationMatrix().rotateAndOffset(new Vec3d(packPart.dismountPos[0], packPart.dismountPos[1], packPart.dismountPos[2]), posX, posY, posZ);
 			}else{
-				placePosition = RotationSystem.getRotatedPoint(seat.offset.addVector(seat.offset.xCoord > 0 ? 2 : -2, 0, 0), this.rotationPitch, this.rotationYaw, this.rotationRoll).add(this.getPositionVector());	
+				placePosition = getRotationMatrix().rotateAndOffset(seat.offset.addVector(seat.offset.xCoord > 0 ? 2 : -2, 0, 0), posX, posY, posZ);	
 			}
 			AxisAlignedBB collisionDetectionBox = new AxisAlignedBB(new BlockPos(placePosition));
 			if(!worldObj.collidesWithAnyBlock(collisionDetectionBox)){
@@ -336,7 +576,31 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		}
 	}
 	
+	/**
+	 * Returns the current mass of this multipart.  This is cached, and is only re-calculated if parts or
+	 * riders were added or removed, a crate's contents changed, or it's time to re-check rider inventories.
+	 */
 	protected float getCurrentMass(){
+		if(massDirty || massPartsVersion != this.getPartsVersion() || (ticksExisted%RIDER_MASS_CHECK_INTERVAL == 0 && !this.getPassengers().isEmpty())){
+			massDirty = false;
+			massPartsVersion = this.getPartsVersion();
+			cachedMass = calculateMass();
+			if(!worldObj.isRemote){
+				MetricsSystem.increment("massRecalculations");
+			}
+		}
+		return cachedMass;
+	}
+	
+	/**
+	 * Marks the cached mass as out of date.  Call this whenever something that affects mass changes.
+	 */
+	public void markMassDirty(){
+		massDirty = true;
+		markNBTDirty();
+	}
+	
+	private float calculateMass(){
 		int currentMass = pack.general.emptyMass;
 		for(APart part : this.getMultipartParts()){
 			if(part instanceof PartCrate){
@@ -357,6 +621,19 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		return currentMass;
 	}
 	
+	@Override
+	protected void addPassenger(Entity passenger){
+		super.addPassenger(passenger);
+		markMassDirty();
+		wakeUp();
+	}
+	
+	@Override
+	protected void removePassenger(Entity passenger){
+		super.removePassenger(passenger);
+		markMassDirty();
+	}
+	
 	/**Calculates the weight of the inventory passed in.  Used for physics calculations.
 	 */
 	private static float calculateInventoryWeight(IInventory inventory){
@@ -364,12 +641,26 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		for(int i=0; i<inventory.getSizeInventory(); ++i){
 			ItemStack stack = inventory.getStackInSlot(i);
 			if(stack != null){
-				weight += 1.2F*stack.stackSize/stack.getMaxStackSize()*(ConfigSystem.getStringConfig("HeavyItems").contains(stack.getItem().getUnlocalizedName().substring(5)) ? 2 : 1);
+				weight += 1.2F*stack.stackSize/stack.getMaxStackSize()*(ConfigSystem.isHeavyItem(stack.getItem()) ? 2 : 1);
 			}
 		}
 		return weight;
 	}
 	
+	/**
+	 * Returns the rotation matrix for the current pitch, yaw, and roll.
+	 * Use this to rotate part, box, and seat offsets rather than calling the {@link RotationSystem}
+	 * as the matrix is only re-calculated when the angles change.
+	 */
+	public RotationMatrix getRotationMatrix(){
+		RotationMatrix matrix = rotationMatrix;
+		if(!matrix.isForAngles(rotationPitch, rotationYaw, rotationRoll)){
+			matrix = new RotationMatrix(rotationPitch, rotationYaw, rotationRoll);
+			rotationMatrix = matrix;
+		}
+		return matrix;
+	}
+	
 	protected void updateHeadingVec(){
         double f1 = Math.cos(-this.rotationYaw * 0.017453292F - (float)Math.PI);
         double f2 = Math.sin(-this.rotationYaw * 0.017453292F - (float)Math.PI);
@@ -401,12 +692,24 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		this.displayText=tagCompound.getString("displayText");
 		
 		this.riderSeatPositions.clear();
-		while(tagCompound.hasKey("Seat" + String.valueOf(riderSeatPositions.size()) + "0")){
-			Double[] seatPosition = new Double[3];
-			seatPosition[0] = tagCompound.getDouble("Seat" + String.valueOf(riderSeatPositions.size()) + "0");
-			seatPosition[1] = tagCompound.getDouble("Seat" + String.valueOf(riderSeatPositions.size()) + "1");
-			seatPosition[2] = tagCompound.getDouble("Seat" + String.valueOf(riderSeatPositions.size()) + "2");
-			riderSeatPositions.add(seatPosition);
+		NBTTagList riderSeatKeys = tagCompound.getTagList("riderSeatKeys", 4);
+		while(true){
+			int riderIndex = riderSeatPositions.size();
+			Vec3d slotPosition = null;
+			if(riderIndex < riderSeatKeys.tagCount() && ((NBTTagLong) riderSeatKeys.get(riderIndex)).getLong() != -1){
+				slotPosition = getSlotKeyPosition(((NBTTagLong) riderSeatKeys.get(riderIndex)).getLong());
+			}
+			if(slotPosition != null){
+				riderSeatPositions.add(new Double[]{slotPosition.xCoord, slotPosition.yCoord, slotPosition.zCoord});
+			}else if(tagCompound.hasKey("Seat" + String.valueOf(riderIndex) + "0")){
+				Double[] seatPosition = new Double[3];
+				seatPosition[0] = tagCompound.getDouble("Seat" + String.valueOf(riderIndex) + "0");
+				seatPosition[1] = tagCompound.getDouble("Seat" + String.valueOf(riderIndex) + "1");
+				seatPosition[2] = tagCompound.getDouble("Seat" + String.valueOf(riderIndex) + "2");
+				riderSeatPositions.add(seatPosition);
+			}else{
+				break;
+			}
 		}
 	}
     
@@ -421,14 +724,24 @@ public abstract class EntityMultipartB_Existing extends EntityMultipartA_Base{
 		
 		//Correlate the order of passengers in the rider list with their location to save it to NBT.
 		//That way riders don't get moved to other seats on world save/load.
+		//Seats in pack slots are saved by slot position key.  Seats elsewhere save their full offset and a key of -1.
+		NBTTagList riderSeatKeys = new NBTTagList();
 		for(byte i=0; i<this.getPassengers().size(); ++i){
 			Entity rider = this.getPassengers().get(i);
 			PartSeat seat = this.getSeatForRider(rider);
+			long seatKey = -1;
 			if(seat != null){
-				tagCompound.setDouble("Seat" + String.valueOf(i) + "0", seat.offset.xCoord);
-				tagCompound.setDouble("Seat" + String.valueOf(i) + "1", seat.offset.yCoord);
-				tagCompound.setDouble("Seat" + String.valueOf(i) + "2", seat.offset.zCoord);
+				seatKey = getSlotKeyForSave(seat.offset);
+				if(seatKey == -1){
+					tagCompound.setDouble("Seat" + String.valueOf(i) + "0", seat.offset.xCoord);
+					tagCompound.setDouble("Seat" + String.valueOf(i) + "1", seat.offset.yCoord);
+					tagCompound.setDouble("Seat" + String.valueOf(i) + "2", seat.offset.zCoord);
+				}
 			}
+			riderSeatKeys.appendTag(new NBTTagLong(seatKey));
+		}
+		if(riderSeatKeys.tagCount() > 0){
+			tagCompound.setTag("riderSeatKeys", riderSeatKeys);
 		}
 		return tagCompound;
 	}
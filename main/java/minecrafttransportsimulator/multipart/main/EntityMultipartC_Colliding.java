@@ -9,12 +9,13 @@ import javax.annotation.Nullable;
 
 import minecrafttransportsimulator.baseclasses.MultipartAxisAlignedBB;
 import minecrafttransportsimulator.baseclasses.MultipartAxisAlignedBBCollective;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
+import minecrafttransportsimulator.baseclasses.VoxelSnapshot;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackCollisionBox;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartGroundDevice;
 import minecrafttransportsimulator.systems.ConfigSystem;
-import minecrafttransportsimulator.systems.RotationSystem;
-import net.minecraft.block.state.IBlockState;
+import minecrafttransportsimulator.systems.MetricsSystem;
 import net.minecraft.entity.Entity;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
@@ -41,6 +42,29 @@ public abstract class EntityMultipartC_Colliding extends EntityMultipartB_Existi
 	/**Map that keys collision boxes of ground devices to the devices themselves.  Used for ground device collision operations.*/
 	protected final Map<MultipartAxisAlignedBB, PartGroundDevice> groundDeviceCollisionBoxMap = new HashMap<MultipartAxisAlignedBB, PartGroundDevice>();
 	
+	/**Pack collision boxes, without any ground device boxes.  Kept between ticks so they can be moved rather than re-built.*/
+	private final List<MultipartAxisAlignedBB> packCollisionBoxes = new ArrayList<MultipartAxisAlignedBB>();
+	/**Boxes for all parts, in the same order as the part array they were made from.*/
+	private final List<MultipartAxisAlignedBB> partBoxes = new ArrayList<MultipartAxisAlignedBB>();
+	/**Size of the collision frame.  Kept so the frame can be re-made at a new position without re-calculating it.*/
+	private float collisionFrameWidth;
+	private float collisionFrameHeight;
+	
+	/**Position, angles, and part version the boxes were last made for.*/
+	private boolean packBoxesValid;
+	private double boxesPosX;
+	private double boxesPosY;
+	private double boxesPosZ;
+	private float boxesPitch;
+	private float boxesYaw;
+	private float boxesRoll;
+	private int boxesPartsVersion = -1;
+	
+	/**Snapshot of the blocks this multipart could hit this tick.  Null until the first movement check.*/
+	private VoxelSnapshot voxelSnapshot;
+	/**Extra blocks to add around the swept region.  Covers rotation and ground devices lifting over blocks.*/
+	private static final double VOXEL_SNAPSHOT_MARGIN = 2.0D;
+	
 	public final double speedFactor = ConfigSystem.getDoubleConfig("SpeedFactor");
 	
 	private float hardnessHitThisTick = 0;
@@ -62,23 +86,112 @@ public abstract class EntityMultipartC_Colliding extends EntityMultipartB_Existi
 				World.MAX_ENTITY_RADIUS = 32;
 			}
 			
-			//Populate the box lists.
+			hardnessHitThisTick = 0;
+			updateBoxLists();
+		}
+	}
+	
+	/**
+	 * Populates the box lists for this tick.  Normally the pack collision boxes are only re-built when
+	 * the orientation changes, and are moved rather than re-built if only the position changes.
+	 * Part boxes are only re-made if a part was added, removed, moved, or changed size.
+	 * If the IncrementalCollisionBoxes config is false, everything is re-built every tick.
+	 */
+	private void updateBoxLists(){
+		final boolean incremental = ConfigSystem.getBooleanConfig("IncrementalCollisionBoxes");
+		final boolean anglesChanged = rotationPitch != boxesPitch || rotationYaw != boxesYaw || rotationRoll != boxesRoll;
+		final boolean positionChanged = posX != boxesPosX || posY != boxesPosY || posZ != boxesPosZ;
+		boolean listsChanged = false;
+		
+		//First do the pack collision boxes.
+		if(!incremental || !packBoxesValid || anglesChanged){
+			packCollisionBoxes.clear();
+			packCollisionBoxes.addAll(this.getUpdatedCollisionBoxes());
+			packBoxesValid = true;
+			listsChanged = true;
+			if(!worldObj.isRemote){
+				MetricsSystem.increment("collisionBoxRebuilds");
+			}
+		}else if(positionChanged){
+			for(byte i=0; i<packCollisionBoxes.size(); ++i){
+				packCollisionBoxes.set(i, packCollisionBoxes.get(i).offset(posX - boxesPosX, posY - boxesPosY, posZ - boxesPosZ));
+			}
+			this.collisionFrame = new MultipartAxisAlignedBBCollective(this, collisionFrameWidth, collisionFrameHeight);
+			listsChanged = true;
+			if(!worldObj.isRemote){
+				MetricsSystem.increment("collisionBoxTranslations");
+			}
+		}else if(!worldObj.isRemote){
+			MetricsSystem.increment("collisionBoxRebuildsSkipped");
+		}
+		boxesPosX = posX;
+		boxesPosY = posY;
+		boxesPosZ = posZ;
+		boxesPitch = rotationPitch;
+		boxesYaw = rotationYaw;
+		boxesRoll = rotationRoll;
+		
+		//Now do the part boxes.  These come from the part positions, so no rotation is needed.
+		APart[] parts = this.getMultipartParts();
+		if(!incremental || !arePartBoxesCurrent(parts)){
+			partBoxes.clear();
+			for(APart part : parts){
+				partBoxes.add(part.getAABBWithOffset(Vec3d.ZERO));
+			}
+			boxesPartsVersion = this.getPartsVersion();
+			listsChanged = true;
+		}
+		
+		//Finally, populate the lists if anything changed.
+		if(listsChanged){
 			currentCollisionBoxes.clear();
 			currentInteractionBoxes.clear();
 			groundDeviceCollisionBoxMap.clear();
-			currentCollisionBoxes.addAll(this.getUpdatedCollisionBoxes());
-			hardnessHitThisTick = 0;
-			for(APart part : this.getMultipartParts()){
-				if(part instanceof PartGroundDevice){
-					currentCollisionBoxes.add(part.getAABBWithOffset(Vec3d.ZERO));
-					groundDeviceCollisionBoxMap.put(currentCollisionBoxes.get(currentCollisionBoxes.size() -1 ), (PartGroundDevice) part);
+			currentCollisionBoxes.addAll(packCollisionBoxes);
+			for(byte i=0; i<parts.length; ++i){
+				if(parts[i] instanceof PartGroundDevice){
+					currentCollisionBoxes.add(partBoxes.get(i));
+					groundDeviceCollisionBoxMap.put(partBoxes.get(i), (PartGroundDevice) parts[i]);
 				}else{
-					currentInteractionBoxes.add(part.getAABBWithOffset(Vec3d.ZERO));
+					currentInteractionBoxes.add(partBoxes.get(i));
 				}
 			}
 		}
 	}
 	
+	/**
+	 * Returns true if the part boxes were made for the passed-in parts and those parts
+	 * haven't moved or changed size since then.
+	 */
+	private boolean arePartBoxesCurrent(APart[] parts){
+		if(boxesPartsVersion != this.getPartsVersion() || partBoxes.size() != parts.length){
+			return false;
+		}
+		for(byte i=0; i<parts.length; ++i){
+			MultipartAxisAlignedBB box = partBoxes.get(i);
+			APart part = parts[i];
+			if(box.pos.xCoord != part.partPos.xCoord || box.pos.yCoord != part.partPos.yCoord || box.pos.zCoord != part.partPos.zCoord || box.width != part.getWidth() || box.height != part.getHeight()){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Captures a new snapshot of the blocks around this multipart for block collision checks.
+	 * The region covers the collision frame at the current position and where the current motion
+	 * will take it.  Call this once a tick, after motion has been set, but before any collision checks.
+	 */
+	protected void captureVoxelSnapshot(){
+		if(voxelSnapshot == null){
+			voxelSnapshot = new VoxelSnapshot(worldObj);
+		}
+		//Use a plain AABB here as the collective wrapper ignores expansions.
+		AxisAlignedBB frame = this.getCollisionBoundingBox();
+		AxisAlignedBB region = new AxisAlignedBB(frame.minX, frame.minY, frame.minZ, frame.maxX, frame.maxY, frame.maxZ);
+		voxelSnapshot.capture(region.union(region.offset(motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor)).expandXyz(VOXEL_SNAPSHOT_MARGIN));
+	}
+	
 	@Override
 	public AxisAlignedBB getEntityBoundingBox(){
 		//Override this to make collision checks work with the multiple collision points.
@@ -120,16 +233,18 @@ public abstract class EntityMultipartC_Colliding extends EntityMultipartB_Existi
 			double furthestWidth = 0;
 			double furthestHeight = 0;
 			List<MultipartAxisAlignedBB> boxList = new ArrayList<MultipartAxisAlignedBB>();
+			RotationMatrix matrix = getRotationMatrix();
 			for(PackCollisionBox box : pack.collision){
 				Vec3d partOffset = new Vec3d(box.pos[0], box.pos[1], box.pos[2]);
-				Vec3d offset = RotationSystem.getRotatedPoint(partOffset, rotationPitch, rotationYaw, rotationRoll);
-				MultipartAxisAlignedBB newBox = new MultipartAxisAlignedBB(this.getPositionVector().add(offset), partOffset, box.width, box.height, box.isInterior);
+				MultipartAxisAlignedBB newBox = new MultipartAxisAlignedBB(matrix.rotateAndOffset(partOffset, posX, posY, posZ), partOffset, box.width, box.height, box.isInterior);
 				boxList.add(newBox);
 				furthestWidth = (float) Math.max(furthestWidth, Math.abs(newBox.rel.xCoord) + box.width/2F);
 				furthestHeight = (float) Math.max(furthestHeight, Math.abs(newBox.rel.yCoord) + box.height/2F);
 				furthestWidth = (float) Math.max(furthestWidth, Math.abs(newBox.rel.zCoord) + box.width/2F);
 			}
-			this.collisionFrame = new MultipartAxisAlignedBBCollective(this, (float) furthestWidth*2F+0.5F, (float) furthestHeight*2F+0.5F);
+			collisionFrameWidth = (float) furthestWidth*2F+0.5F;
+			collisionFrameHeight = (float) furthestHeight*2F+0.5F;
+			this.collisionFrame = new MultipartAxisAlignedBBCollective(this, collisionFrameWidth, collisionFrameHeight);
 			return boxList;
 		}else{
 			return new ArrayList<MultipartAxisAlignedBB>(0);
@@ -242,6 +357,7 @@ public abstract class EntityMultipartC_Colliding extends EntityMultipartB_Existi
 								motionZ *= Math.max(1.0F - hardness*0.5F/((1000F + currentMass)/1000F), 0.0F);
 								if(!worldObj.isRemote){
 									worldObj.destroyBlock(pos, true);
+									voxelSnapshot.invalidate(pos);
 								}
 							}else{
 								++blockPosIndex;
@@ -274,6 +390,7 @@ public abstract class EntityMultipartC_Colliding extends EntityMultipartB_Existi
 	
 	/**
 	 * Checks if an AABB is colliding with blocks, and returns the AABB of those blocks.
+	 * Uses the voxel snapshot if one has been captured, so this may be called many times a tick.
 	 */
 	protected List<AxisAlignedBB> getAABBCollisions(AxisAlignedBB box, PartGroundDevice optionalGroundDevice, List<BlockPos> collidedBlockPos){
 		int minX = (int) Math.floor(box.minX);
@@ -283,21 +400,19 @@ public abstract class EntityMultipartC_Colliding extends EntityMultipartB_Existi
     	int minZ = (int) Math.floor(box.minZ);
     	int maxZ = (int) Math.floor(box.maxZ + 1.0D);
     	List<AxisAlignedBB> collidingAABBList = new ArrayList<AxisAlignedBB>();
+    	boolean includeLiquids = optionalGroundDevice != null && optionalGroundDevice.pack.groundDevice.canFloat;
+    	if(voxelSnapshot == null){
+    		voxelSnapshot = new VoxelSnapshot(worldObj);
+    	}
     	
     	for(int i = minX; i < maxX; ++i){
     		for(int j = minY; j < maxY; ++j){
     			for(int k = minZ; k < maxZ; ++k){
-    				BlockPos pos = new BlockPos(i, j, k);
-    				IBlockState state = worldObj.getBlockState(pos);
-    				if(state.getBlock().canCollideCheck(state, false)){
-    					state.addCollisionBoxToList(worldObj, pos, box, collidingAABBList, null);
+    				if(voxelSnapshot.addCollisionBoxes(i, j, k, box, includeLiquids, collidingAABBList)){
         				if(collidedBlockPos != null){
-        					collidedBlockPos.add(pos);
+        					collidedBlockPos.add(new BlockPos(i, j, k));
         				}
     				}
-					if(optionalGroundDevice != null && optionalGroundDevice.pack.groundDevice.canFloat && state.getMaterial().isLiquid()){
-						collidingAABBList.add(state.getBoundingBox(worldObj, pos).offset(pos));
-					}
     			}
     		}
     	}
@@ -3,19 +3,26 @@ package minecrafttransportsimulator.multipart.main;
 import java.util.ArrayList;
 import java.util.List;
 
-import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.baseclasses.MultipartAxisAlignedBB;
+import minecrafttransportsimulator.baseclasses.MultipartSnapshotBuffer;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartGroundDevice;
+import minecrafttransportsimulator.multipart.parts.PartSeat;
+import minecrafttransportsimulator.packets.multipart.PacketMultipartControlState;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartDeltas;
 import minecrafttransportsimulator.systems.ConfigSystem;
-import minecrafttransportsimulator.systems.RotationSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
+import minecrafttransportsimulator.systems.NetworkSystem;
+import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
 
 /**At the final basic multipart level we add in the functionality for state-based movement.
  * Here is where the functions for moving permissions, such as collision detection
@@ -46,11 +53,51 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 	private float serverDeltaPitch;
 	private float serverDeltaRoll;
 	
+	/**Total deltas clients have been sent.  Deltas sent are always what we have minus these,
+	 * so nothing lost to quantization or skipped sends is ever lost for good.*/
+	private double sentDeltaX;
+	private double sentDeltaY;
+	private double sentDeltaZ;
+	private float sentDeltaYaw;
+	private float sentDeltaPitch;
+	private float sentDeltaRoll;
+	/**Per-tick velocities of the last delta packet.  Clients keep moving at these until the next one,
+	 * so we predict with them too and only send when the prediction is too far off.*/
+	private double sentVelocityX;
+	private double sentVelocityY;
+	private double sentVelocityZ;
+	private float sentVelocityYaw;
+	private float sentVelocityPitch;
+	private float sentVelocityRoll;
+	/**World time the last delta packet was sent.  Packets say how many ticks they cover so clients can time them.*/
+	private long lastDeltaTime;
+	/**If true, deltas are sent on the next update even if the prediction is good.*/
+	private boolean keyframeRequested;
+	/**Server states waiting to be played back on clients.*/
+	private final MultipartSnapshotBuffer snapshotBuffer = new MultipartSnapshotBuffer();
+	
 	/**List of ground devices on the ground.  Populated after each movement to be used in turning/braking calculations.*/
 	public final List<PartGroundDevice> groundedGroundDevices = new ArrayList<PartGroundDevice>();
 	
 	public final double clingSpeed = ConfigSystem.getDoubleConfig("ClingSpeed");
 	
+	/**Size of the steps rotations are backed off by when they collide, in degrees.*/
+	private static final float ROTATION_STEP = 0.1F;
+	/**Max number of bisection passes per box when finding how far we can rotate.  8 passes covers rotations up to 25.6 degrees exactly.*/
+	private static final byte MAX_ROTATION_BISECTIONS = 8;
+	private static final byte PITCH_AXIS = 0;
+	private static final byte YAW_AXIS = 1;
+	private static final byte ROLL_AXIS = 2;
+	
+	/**Current simulation level.  Only used on the server; clients always simulate every tick.*/
+	private SimulationLevels simulationLevel = SimulationLevels.FULL;
+	
+	/**Control states last sent to clients, and the current ones.  Indexed by {@link ControlStates}.  Only used on the server.*/
+	private final short[] sentControlState = new short[ControlStates.values().length];
+	private final short[] currentControlState = new short[ControlStates.values().length];
+	/**Ticks since control states were last checked for changes.*/
+	private int ticksSinceControlState;
+	
 	public EntityMultipartD_Moving(World world){
 		super(world);
 	}
@@ -59,24 +106,68 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		super(world, posX, posY, posZ, playerRotation, multipartName);
 	}
 	
+	/**
+	 * Runs the update if the current simulation level calls for it.
+	 * Frozen multiparts skip the whole update, including the housekeeping in {@link #onEntityUpdate()}.
+	 * The bits of that housekeeping that matter for something sitting still are done here instead: age goes up,
+	 * and multiparts in the void are killed.  Fire and water checks are left for when a player comes near.
+	 */
+	@Override
+	public void onUpdate(){
+		if(!worldObj.isRemote && pack != null && !isSleeping()){
+			simulationLevel = getSimulationLevel();
+			MetricsSystem.increment(simulationLevel.metricName);
+			if(simulationLevel.equals(SimulationLevels.FROZEN)){
+				++ticksExisted;
+				if(posY < -64.0D){
+					this.kill();
+				}
+				return;
+			}
+		}
+		super.onUpdate();
+	}
+	
+	/**
+	 * Returns the simulation level this multipart should be at based on how close the nearest player is.
+	 * Multiparts with riders are never frozen, as something is driving them even if no player is around.
+	 */
+	private SimulationLevels getSimulationLevel(){
+		if(!this.getPassengers().isEmpty() || worldObj.isAnyPlayerWithinRangeAt(posX, posY, posZ, ConfigSystem.getIntegerConfig("SimulationNearRadius"))){
+			return SimulationLevels.FULL;
+		}else{
+			return SimulationLevels.FROZEN;
+		}
+	}
+	
+	public SimulationLevels getCurrentSimulationLevel(){
+		return simulationLevel;
+	}
+	
 	@Override
 	public void onEntityUpdate(){
 		super.onEntityUpdate();
 		if(pack != null){
-			getForcesAndMotions();
-			performGroundOperations();
-			moveMultipart();
+			//Clients only work out motions for the multipart their player is driving, as it needs to answer their inputs right away.
+			//Every other multipart on clients just plays back the states the server sends.
+			if(!worldObj.isRemote || isControlledByClientPlayer()){
+				getForcesAndMotions();
+				performGroundOperations();
+				moveMultipart();
+			}else{
+				playBackServerStates();
+			}
+			moveCollidingPlayers();
 			if(!worldObj.isRemote){
 				dampenControlSurfaces();
+				sendControlState();
 			}
 			
 			//Populate the ground device list for use in the methods here.
 			groundedGroundDevices.clear();
-			for(APart part : this.getMultipartParts()){
-				if(part instanceof PartGroundDevice){
-					if(((PartGroundDevice) part).isOnGround()){
-						groundedGroundDevices.add((PartGroundDevice) part);
-					}
+			for(PartGroundDevice groundDevice : this.getMultipartPartsOfType(PartGroundDevice.class)){
+				if(groundDevice.isOnGround()){
+					groundedGroundDevices.add(groundDevice);
 				}
 			}
 			
@@ -96,11 +187,12 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		boolean needCheck = false;
 		boolean groundDeviceNeedsLifting = false;
 		double originalMotionY = motionY;
+		captureVoxelSnapshot();
 		
 		//First try to add the current motion and see if we need to check anything.
+		RotationMatrix motionMatrix = new RotationMatrix(rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll + motionRoll);
 		for(MultipartAxisAlignedBB box : this.getCurrentCollisionBoxes()){
-			Vec3d offset = RotationSystem.getRotatedPoint(box.rel, rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll + motionRoll);
-			MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(this.getPositionVector().add(offset).addVector(motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor));
+			MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(motionMatrix.rotateAndOffset(box.rel, posX + motionX*speedFactor, posY + motionY*speedFactor, posZ + motionZ*speedFactor));
 			if(!getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null).isEmpty()){
 				needCheck = true;
 			}
@@ -174,19 +266,8 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 			
 			//Check the yaw.
 			for(MultipartAxisAlignedBB box : this.getCurrentCollisionBoxes()){
-				while(motionYaw != 0){
-					Vec3d offset = RotationSystem.getRotatedPoint(box.rel, rotationPitch, rotationYaw + motionYaw, rotationRoll);
-					//Raise this box ever so slightly because Floating Point errors are a PITA.
-					MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(this.getPositionVector().add(offset).addVector(motionX*speedFactor, motionY*speedFactor + 0.1, motionZ*speedFactor));
-					if(getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null).isEmpty()){
-						break;
-					}
-					if(this.motionYaw > 0){
-						this.motionYaw = Math.max(motionYaw - 0.1F, 0);
-					}else{
-						this.motionYaw = Math.min(motionYaw + 0.1F, 0);
-					}
-				}
+				//Raise this box ever so slightly because Floating Point errors are a PITA.
+				motionYaw = getAllowedRotation(box, motionYaw, YAW_AXIS, 0.1);
 			}
 
 			//Now do pitch.
@@ -195,14 +276,15 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 			//trying to pitch up and rear ground devices are blocking it.  This needed to allow vehicles to
 			//rotate on their ground devices.
 			for(MultipartAxisAlignedBB box : this.getCurrentCollisionBoxes()){
-				while(motionPitch != 0){
-					Vec3d offset = RotationSystem.getRotatedPoint(box.rel, rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll);
-					MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(this.getPositionVector().add(offset).addVector(motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor));
-					if(getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null).isEmpty()){
-						break;
+				if(motionPitch != 0){
+					RotationMatrix pitchMatrix = new RotationMatrix(rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll);
+					MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(pitchMatrix.rotateAndOffset(box.rel, posX + motionX*speedFactor, posY + motionY*speedFactor, posZ + motionZ*speedFactor));
+					List<AxisAlignedBB> collidingBoxes = getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null);
+					if(collidingBoxes.isEmpty()){
+						continue;
 					}else if((motionPitch < 0 && box.rel.zCoord <= 0) || (motionPitch > 0 && rotationPitch < -10 && box.rel.zCoord > 0 && originalMotionY > 0)){
 						float yBoost = 0;
-						for(AxisAlignedBB box2 : getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null)){
+						for(AxisAlignedBB box2 : collidingBoxes){
 							if(box2.maxY > offsetBox.minY + yBoost){
 								yBoost += (box2.maxY - offsetBox.minY);
 							}
@@ -212,30 +294,15 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 						yBoost = (float) Math.min(Math.min(this.velocity, Math.abs(motionPitch)), yBoost/speedFactor);
 						motionY += yBoost;
 						originalMotionY += yBoost;
-						break;
-					}
-					if(this.motionPitch > 0){
-						this.motionPitch = Math.max(motionPitch - 0.1F, 0);
-					}else{
-						this.motionPitch = Math.min(motionPitch + 0.1F, 0);
+						continue;
 					}
+					motionPitch = getAllowedRotation(box, motionPitch, PITCH_AXIS, 0);
 				}
 			}
 			
 			//And lastly the roll.
 			for(MultipartAxisAlignedBB box : this.getCurrentCollisionBoxes()){
-				while(motionRoll != 0){
-					Vec3d offset = RotationSystem.getRotatedPoint(box.rel, rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll + motionRoll);
-					MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(this.getPositionVector().add(offset).addVector(motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor));
-					if(getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null).isEmpty()){
-						break;
-					}
-					if(this.motionRoll > 0){
-						this.motionRoll = Math.max(motionRoll - 0.1F, 0);
-					}else{
-						this.motionRoll = Math.min(motionRoll + 0.1F, 0);
-					}
-				}
+				motionRoll = getAllowedRotation(box, motionRoll, ROLL_AXIS, 0);
 			}
 			
 			//Now everything has been checked and clamped.  If we had a colliding ground device
@@ -272,9 +339,9 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 					needPitchDown = false;
 					needRollRight = false;
 					needRollLeft = false;
+					RotationMatrix loopMatrix = new RotationMatrix(rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll + motionRoll);
 					for(MultipartAxisAlignedBB box : this.getCurrentCollisionBoxes()){
-						Vec3d offset = RotationSystem.getRotatedPoint(box.rel, rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll + motionRoll);
-						MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(this.getPositionVector().add(offset).addVector(motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor));
+						MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(loopMatrix.rotateAndOffset(box.rel, posX + motionX*speedFactor, posY + motionY*speedFactor, posZ + motionZ*speedFactor));
 						if(!getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null).isEmpty()){
 							if(box.rel.zCoord > 0){
 								needPitchUp = true;
@@ -396,56 +463,20 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 				rotationRoll += motionRoll;
 				setPosition(posX + motionX*speedFactor, posY + motionY*speedFactor, posZ + motionZ*speedFactor);
 				addToServerDeltas(motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor, motionYaw, motionPitch, motionRoll);
-				MTS.MTSNet.sendToAll(new PacketMultipartDeltas(this, motionX*speedFactor, motionY*speedFactor, motionZ*speedFactor, motionYaw, motionPitch, motionRoll));
 			}
+			sendDeltas();
 		}else{
-			//Make sure the server is sending delta packets and NBT is initialized before we try to do delta correction.
-			if(!(serverDeltaX == 0 && serverDeltaY == 0 && serverDeltaZ == 0)){
-				//Check to make sure the delta is non-zero before trying to do complex math to calculate it.
-				//Saves a bit of CPU power due to division and multiplication operations, and prevents constant
-				//movement due to floating-point errors.
-				final double deltaX;
-				if(serverDeltaX - clientDeltaX != 0){
-					deltaX = motionX*speedFactor + (serverDeltaX - clientDeltaX)/25D*Math.abs(serverDeltaX - clientDeltaX);
-				}else{
-					deltaX = 0;
-				}
-				
-				final double deltaY; 
-				if(serverDeltaY - clientDeltaY !=  0){
-					deltaY = motionY*speedFactor + (serverDeltaY - clientDeltaY)/25D*Math.abs(serverDeltaY - clientDeltaY);
-				}else{
-					deltaY = 0;
-				}
-				
-				final double deltaZ; 
-				if(serverDeltaZ - clientDeltaZ !=  0){
-					deltaZ = motionZ*speedFactor + (serverDeltaZ - clientDeltaZ)/25D*Math.abs(serverDeltaZ - clientDeltaZ);
-				}else{
-					deltaZ = 0;
-				}
-				
-				final float deltaYaw; 
-				if(serverDeltaYaw - clientDeltaYaw != 0){
-					deltaYaw = motionYaw + (serverDeltaYaw - clientDeltaYaw)/25F*Math.abs(serverDeltaYaw - clientDeltaYaw);
-				}else{
-					deltaYaw = 0;
-				}
-				
-				final float deltaPitch; 
-				if(serverDeltaPitch - clientDeltaPitch != 0){
-					deltaPitch = motionPitch + (serverDeltaPitch - clientDeltaPitch)/25F*Math.abs(serverDeltaPitch - clientDeltaPitch);
-				}else{
-					deltaPitch = 0;
-				}
-				
-				final float deltaRoll; 
-				if(serverDeltaRoll - clientDeltaRoll != 0){
-					deltaRoll = motionRoll + (serverDeltaRoll - clientDeltaRoll)/25F*Math.abs(serverDeltaRoll - clientDeltaRoll);
-				}else{
-					deltaRoll = 0;
-				}
-
+			//Our player is driving, so move with our own motions right away.  Server states still come in, so we also
+			//nudge towards where the server most likely is now.  The nudge grows with the error, so small errors fade out
+			//and big ones close fast.  Make sure NBT is initialized before we try to compare with the server.
+			if(snapshotBuffer.isInitialized()){
+				snapshotBuffer.update(ConfigSystem.getIntegerConfig("MaxExtrapolationTicks"));
+				final double deltaX = motionX*speedFactor + getCorrection(snapshotBuffer.getPredictedX() - clientDeltaX);
+				final double deltaY = motionY*speedFactor + getCorrection(snapshotBuffer.getPredictedY() - clientDeltaY);
+				final double deltaZ = motionZ*speedFactor + getCorrection(snapshotBuffer.getPredictedZ() - clientDeltaZ);
+				final float deltaYaw = motionYaw + (float) getCorrection(snapshotBuffer.getPredictedYaw() - clientDeltaYaw);
+				final float deltaPitch = motionPitch + (float) getCorrection(snapshotBuffer.getPredictedPitch() - clientDeltaPitch);
+				final float deltaRoll = motionRoll + (float) getCorrection(snapshotBuffer.getPredictedRoll() - clientDeltaRoll);
 				setPosition(posX + deltaX, posY + deltaY, posZ + deltaZ);
 				rotationYaw += deltaYaw;
 				rotationPitch += deltaPitch;
@@ -458,7 +489,59 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 				setPosition(posX + motionX*speedFactor, posY + motionY*speedFactor, posZ + motionZ*speedFactor);
 			}
 		}
-		
+	}
+	
+	/**
+	 * Returns how far to move this tick to correct the passed-in error between the server and client.
+	 */
+	private static double getCorrection(double error){
+		return error/25D*Math.abs(error);
+	}
+	
+	/**
+	 * Moves this multipart to wherever the server was at the current playback time.  Only used on clients for
+	 * multiparts their player isn't driving.  Motions are set to match the movement, so instruments, sounds, and
+	 * parts see the multipart moving just like it does on the server.
+	 */
+	private void playBackServerStates(){
+		prevRotationRoll = rotationRoll;
+		//Make sure NBT is initialized before we try to play back server states.
+		if(snapshotBuffer.isInitialized()){
+			snapshotBuffer.update(ConfigSystem.getIntegerConfig("MaxExtrapolationTicks"));
+			final double deltaX = snapshotBuffer.getX() - clientDeltaX;
+			final double deltaY = snapshotBuffer.getY() - clientDeltaY;
+			final double deltaZ = snapshotBuffer.getZ() - clientDeltaZ;
+			final float deltaYaw = snapshotBuffer.getYaw() - clientDeltaYaw;
+			final float deltaPitch = snapshotBuffer.getPitch() - clientDeltaPitch;
+			final float deltaRoll = snapshotBuffer.getRoll() - clientDeltaRoll;
+			setPosition(posX + deltaX, posY + deltaY, posZ + deltaZ);
+			rotationYaw += deltaYaw;
+			rotationPitch += deltaPitch;
+			rotationRoll += deltaRoll;
+			addToClientDeltas(deltaX, deltaY, deltaZ, deltaYaw, deltaPitch, deltaRoll);
+			motionX = deltaX/speedFactor;
+			motionY = deltaY/speedFactor;
+			motionZ = deltaZ/speedFactor;
+			motionYaw = deltaYaw;
+			motionPitch = deltaPitch;
+			motionRoll = deltaRoll;
+		}
+	}
+	
+	/**
+	 * Returns true if the player on this client is in the controlling seat of this multipart.
+	 */
+	@SideOnly(Side.CLIENT)
+	private boolean isControlledByClientPlayer(){
+		EntityPlayer player = Minecraft.getMinecraft().thePlayer;
+		PartSeat seat = player != null ? this.getSeatForRider(player) : null;
+		return seat != null && seat.isController;
+	}
+	
+	/**
+	 * Moves any players standing on this multipart's collision boxes along with it.
+	 */
+	private void moveCollidingPlayers(){
 		//After all movement is done, try and move players on hitboxes.
 		//Note that we need to interpolate the delta here based on actual movement, so don't use motionX!
 		if(this.velocity != 0){
@@ -481,6 +564,55 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		}
 	}
 	
+	/**
+	 * Returns the largest rotation, no bigger than the passed-in rotation, that the passed-in box can do without
+	 * colliding with blocks.  Rotation is checked on the passed-in axis with all prior axis motions applied.
+	 * Candidate rotations are the same {@link #ROTATION_STEP} steps that we'd get by backing the rotation off
+	 * bit by bit, but they are found by bisection so the cost has a fixed upper bound no matter how fast we turn.
+	 * This assumes that if a rotation collides, any bigger rotation in the same direction collides too.
+	 * If the search runs out of passes we take the smaller rotation, as that's the one we know is safe.
+	 */
+	private float getAllowedRotation(MultipartAxisAlignedBB box, float rotation, byte axis, double yOffset){
+		if(rotation == 0 || !isRotationColliding(box, rotation, axis, yOffset)){
+			return rotation;
+		}
+		
+		//Step 0 is the full rotation, which we know collides.  The last step is no rotation, which we always allow.
+		int collidingStep = 0;
+		int freeStep = (int) Math.ceil(Math.abs(rotation)/ROTATION_STEP);
+		for(byte i=0; i<MAX_ROTATION_BISECTIONS && freeStep - collidingStep > 1; ++i){
+			int middleStep = (collidingStep + freeStep) >>> 1;
+			if(isRotationColliding(box, getRotationAtStep(rotation, middleStep), axis, yOffset)){
+				collidingStep = middleStep;
+			}else{
+				freeStep = middleStep;
+			}
+		}
+		return getRotationAtStep(rotation, freeStep);
+	}
+	
+	private static float getRotationAtStep(float rotation, int step){
+		return rotation > 0 ? Math.max(rotation - step*ROTATION_STEP, 0) : Math.min(rotation + step*ROTATION_STEP, 0);
+	}
+	
+	/**
+	 * Returns true if the passed-in box collides with blocks when this multipart moves with its current motions
+	 * and the passed-in rotation on the passed-in axis.  Yaw is checked alone, pitch includes the yaw motion,
+	 * and roll includes both the yaw and pitch motions.
+	 */
+	private boolean isRotationColliding(MultipartAxisAlignedBB box, float rotation, byte axis, double yOffset){
+		RotationMatrix matrix;
+		if(axis == YAW_AXIS){
+			matrix = new RotationMatrix(rotationPitch, rotationYaw + rotation, rotationRoll);
+		}else if(axis == PITCH_AXIS){
+			matrix = new RotationMatrix(rotationPitch + rotation, rotationYaw + motionYaw, rotationRoll);
+		}else{
+			matrix = new RotationMatrix(rotationPitch + motionPitch, rotationYaw + motionYaw, rotationRoll + rotation);
+		}
+		MultipartAxisAlignedBB offsetBox = box.getBoxWithOrigin(matrix.rotateAndOffset(box.rel, posX + motionX*speedFactor, posY + motionY*speedFactor + yOffset, posZ + motionZ*speedFactor));
+		return !getAABBCollisions(offsetBox, groundDeviceCollisionBoxMap.get(box), null).isEmpty();
+	}
+	
 	/**
 	 * Returns factor for braking.
 	 * Depends on number of grounded core collision sections and braking ground devices.
@@ -574,6 +706,63 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		motionZ = groundVec.zCoord * groundSpeed;
 	}
 	
+	/**
+	 * Queues deltas to be sent to clients if they need them.  Clients keep moving at the velocity of the last
+	 * delta packet until they get the next one, so we work out where they think we are and only send if that's
+	 * off by more than the thresholds in the config.  A keyframe is sent every so often no matter what,
+	 * in case clients have gotten out of sync some other way.  Deltas sent are always the difference between our
+	 * total and the total we've sent, so whatever the packet loses to quantization is sent with the next one.
+	 */
+	private void sendDeltas(){
+		long worldTime = worldObj.getTotalWorldTime();
+		if(lastDeltaTime == 0){
+			lastDeltaTime = worldTime;
+			return;
+		}
+		int ticks = (int) Math.min(worldTime - lastDeltaTime, Short.MAX_VALUE);
+		if(ticks == 0){
+			return;
+		}
+		
+		double errorX = serverDeltaX - (sentDeltaX + sentVelocityX*ticks);
+		double errorY = serverDeltaY - (sentDeltaY + sentVelocityY*ticks);
+		double errorZ = serverDeltaZ - (sentDeltaZ + sentVelocityZ*ticks);
+		double angleThreshold = ConfigSystem.getDoubleConfig("DeltaAngleThreshold");
+		double positionThreshold = ConfigSystem.getDoubleConfig("DeltaPositionThreshold");
+		boolean predictionOff = errorX*errorX + errorY*errorY + errorZ*errorZ > positionThreshold*positionThreshold;
+		predictionOff |= Math.abs(serverDeltaYaw - (sentDeltaYaw + sentVelocityYaw*ticks)) > angleThreshold;
+		predictionOff |= Math.abs(serverDeltaPitch - (sentDeltaPitch + sentVelocityPitch*ticks)) > angleThreshold;
+		predictionOff |= Math.abs(serverDeltaRoll - (sentDeltaRoll + sentVelocityRoll*ticks)) > angleThreshold;
+		
+		if(predictionOff || keyframeRequested || ticks >= ConfigSystem.getIntegerConfig("DeltaKeyframeInterval")){
+			PacketMultipartDeltas packet = new PacketMultipartDeltas(this, ticks, serverDeltaX - sentDeltaX, serverDeltaY - sentDeltaY, serverDeltaZ - sentDeltaZ, serverDeltaYaw - sentDeltaYaw, serverDeltaPitch - sentDeltaPitch, serverDeltaRoll - sentDeltaRoll);
+			sentDeltaX += packet.getDeltaX();
+			sentDeltaY += packet.getDeltaY();
+			sentDeltaZ += packet.getDeltaZ();
+			sentDeltaYaw += packet.getDeltaYaw();
+			sentDeltaPitch += packet.getDeltaPitch();
+			sentDeltaRoll += packet.getDeltaRoll();
+			sentVelocityX = packet.getDeltaX()/ticks;
+			sentVelocityY = packet.getDeltaY()/ticks;
+			sentVelocityZ = packet.getDeltaZ()/ticks;
+			sentVelocityYaw = packet.getDeltaYaw()/ticks;
+			sentVelocityPitch = packet.getDeltaPitch()/ticks;
+			sentVelocityRoll = packet.getDeltaRoll()/ticks;
+			lastDeltaTime = worldTime;
+			keyframeRequested = false;
+			NetworkSystem.queueDeltasToTrackers(packet, this);
+			MetricsSystem.increment(predictionOff ? "deltaCorrections" : "deltaKeyframes");
+		}
+	}
+	
+	/**
+	 * Makes the next update send deltas even if clients' prediction is good.  Call this when a client
+	 * is sent the full state of this multipart, so it doesn't have to wait for a keyframe to get moving.
+	 */
+	public void requestDeltaKeyframe(){
+		keyframeRequested = true;
+	}
+	
 	private void addToClientDeltas(double dX, double dY, double dZ, float dYaw, float dPitch, float dRoll){
 		this.clientDeltaX += dX;
 		this.clientDeltaY += dY;
@@ -583,7 +772,7 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		this.clientDeltaRoll += dRoll;
 	}
 	
-	public void addToServerDeltas(double dX, double dY, double dZ, float dYaw, float dPitch, float dRoll){
+	private void addToServerDeltas(double dX, double dY, double dZ, float dYaw, float dPitch, float dRoll){
 		this.serverDeltaX += dX;
 		this.serverDeltaY += dY;
 		this.serverDeltaZ += dZ;
@@ -592,6 +781,15 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		this.serverDeltaRoll += dRoll;
 	}
 	
+	/**
+	 * Adds deltas from a server packet that covers the passed-in number of server ticks.
+	 * The new server state is buffered so it can be played back smoothly.  Only call this on clients.
+	 */
+	public void addServerDeltaPacket(int ticks, double dX, double dY, double dZ, float dYaw, float dPitch, float dRoll){
+		addToServerDeltas(dX, dY, dZ, dYaw, dPitch, dRoll);
+		snapshotBuffer.addSnapshot(ticks, serverDeltaX, serverDeltaY, serverDeltaZ, serverDeltaYaw, serverDeltaPitch, serverDeltaRoll, ConfigSystem.getIntegerConfig("InterpolationDelay"));
+	}
+	
 	/**
 	 * Method block for force and motion calculations.
 	 */
@@ -609,6 +807,43 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 	 */
 	protected abstract void dampenControlSurfaces();
 	
+	/**
+	 * Sends any controls that changed since the last send to the players tracking this multipart.
+	 * Only checks every few ticks as set in the config, so fast-changing controls don't flood clients.
+	 */
+	private void sendControlState(){
+		if(++ticksSinceControlState >= ConfigSystem.getIntegerConfig("ControlStateInterval")){
+			ticksSinceControlState = 0;
+			getControlState(currentControlState);
+			PacketMultipartControlState packet = new PacketMultipartControlState(this, sentControlState, currentControlState);
+			if(packet.hasChanges()){
+				NetworkSystem.sendToTrackers(packet, this);
+				System.arraycopy(currentControlState, 0, sentControlState, 0, currentControlState.length);
+			}
+		}
+	}
+	
+	/**
+	 * Puts the current value of the controls on this multipart into the passed-in array.
+	 * Subclasses with more controls should call super and then add theirs.
+	 */
+	protected void getControlState(short[] state){
+		state[ControlStates.BRAKE.ordinal()] = (short) (brakeOn ? 1 : 0);
+		state[ControlStates.PARKING_BRAKE.ordinal()] = (short) (parkingBrakeOn ? 1 : 0);
+	}
+	
+	/**
+	 * Sets the passed-in control to the passed-in value.  Called on clients when a control state packet comes in.
+	 * Subclasses with more controls should handle theirs and pass the rest to super.
+	 */
+	public void setControlState(ControlStates control, short value){
+		switch(control){
+			case BRAKE: brakeOn = value != 0; break;
+			case PARKING_BRAKE: parkingBrakeOn = value != 0; break;
+			default: break;
+		}
+	}
+	
 	
     @Override
 	public void readFromNBT(NBTTagCompound tagCompound){
@@ -630,6 +865,14 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 			this.clientDeltaYaw = this.serverDeltaYaw;
 			this.clientDeltaPitch = this.serverDeltaPitch;
 			this.clientDeltaRoll = this.serverDeltaRoll;
+			snapshotBuffer.reset(serverDeltaX, serverDeltaY, serverDeltaZ, serverDeltaYaw, serverDeltaPitch, serverDeltaRoll);
+		}else{
+			this.sentDeltaX = this.serverDeltaX;
+			this.sentDeltaY = this.serverDeltaY;
+			this.sentDeltaZ = this.serverDeltaZ;
+			this.sentDeltaYaw = this.serverDeltaYaw;
+			this.sentDeltaPitch = this.serverDeltaPitch;
+			this.sentDeltaRoll = this.serverDeltaRoll;
 		}
 	}
     
@@ -639,12 +882,55 @@ public abstract class EntityMultipartD_Moving extends EntityMultipartC_Colliding
 		tagCompound.setBoolean("brakeOn", this.brakeOn);
 		tagCompound.setBoolean("parkingBrakeOn", this.parkingBrakeOn);
 		
-		tagCompound.setDouble("serverDeltaX", this.serverDeltaX);
-		tagCompound.setDouble("serverDeltaY", this.serverDeltaY);
-		tagCompound.setDouble("serverDeltaZ", this.serverDeltaZ);
-		tagCompound.setFloat("serverDeltaYaw", this.serverDeltaYaw);
-		tagCompound.setFloat("serverDeltaPitch", this.serverDeltaPitch);
-		tagCompound.setFloat("serverDeltaRoll", this.serverDeltaRoll);
+		//Save the deltas we've sent rather than our own.  Clients that get this NBT add
+		//future delta packets to it, and those packets are based on what we've sent.
+		tagCompound.setDouble("serverDeltaX", this.sentDeltaX);
+		tagCompound.setDouble("serverDeltaY", this.sentDeltaY);
+		tagCompound.setDouble("serverDeltaZ", this.sentDeltaZ);
+		tagCompound.setFloat("serverDeltaYaw", this.sentDeltaYaw);
+		tagCompound.setFloat("serverDeltaPitch", this.sentDeltaPitch);
+		tagCompound.setFloat("serverDeltaRoll", this.sentDeltaRoll);
 		return tagCompound;
 	}
+	
+	@Override
+	public NBTTagCompound getClientInitTag(){
+		NBTTagCompound tagCompound = super.getClientInitTag();
+		//Clients add future delta packets to the deltas we've sent, and those packets carry all the movement
+		//we haven't sent yet.  Start clients where the sent deltas put us so that movement isn't counted twice.
+		tagCompound.setTag("Pos", newDoubleNBTList(posX - (serverDeltaX - sentDeltaX), posY - (serverDeltaY - sentDeltaY), posZ - (serverDeltaZ - sentDeltaZ)));
+		tagCompound.setTag("Rotation", newFloatNBTList(rotationYaw - (serverDeltaYaw - sentDeltaYaw), rotationPitch - (serverDeltaPitch - sentDeltaPitch)));
+		tagCompound.setFloat("rotationRoll", rotationRoll - (serverDeltaRoll - sentDeltaRoll));
+		return tagCompound;
+	}
+	
+	public enum SimulationLevels{
+		/**Simulated every tick.*/
+		FULL("multipartsSimulatedFull"),
+		/**Not simulated at all.*/
+		FROZEN("multipartsFrozen");
+		
+		/**Name of the metric that counts multiparts at this level each tick.*/
+		public final String metricName;
+		
+		private SimulationLevels(String metricName){
+			this.metricName = metricName;
+		}
+	}
+	
+	/**Controls sent in control state packets.  Not every multipart has every control; ones it doesn't have are left at 0.
+	 * Only add new controls to the end of this list, as the ordinal is used to index them in packets.*/
+	public enum ControlStates{
+		BRAKE,
+		PARKING_BRAKE,
+		THROTTLE,
+		STEERING,
+		AILERON,
+		ELEVATOR,
+		RUDDER,
+		FLAP,
+		AILERON_TRIM,
+		ELEVATOR_TRIM,
+		RUDDER_TRIM;
+	}
 }
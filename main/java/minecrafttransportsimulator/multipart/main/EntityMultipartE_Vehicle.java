@@ -14,6 +14,7 @@ import minecrafttransportsimulator.dataclasses.PackInstrumentObject;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.APartEngine;
+import minecrafttransportsimulator.multipart.parts.APartEngine.EngineStates;
 import minecrafttransportsimulator.packets.multipart.PacketMultipartClientRemoval;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
@@ -21,6 +22,8 @@ import net.minecraft.entity.Entity;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.relauncher.Side;
@@ -79,6 +82,19 @@ public abstract class EntityMultipartE_Vehicle extends EntityMultipartD_Moving{
 		}
 	}
 
+	@Override
+	protected boolean canSleep(){
+		if(!super.canSleep() || hornOn || sirenOn || !lightsOn.isEmpty()){
+			return false;
+		}
+		for(APartEngine engine : this.getMultipartPartsOfType(APartEngine.class)){
+			if(!engine.state.equals(EngineStates.ENGINE_OFF)){
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public void setDead(){
 		if(!worldObj.isRemote){
@@ -283,6 +299,21 @@ public abstract class EntityMultipartE_Vehicle extends EntityMultipartD_Moving{
 		}
 		sounds.add(newSound);
 	}
+	
+	@Override
+	protected void getControlState(short[] state){
+		super.getControlState(state);
+		state[ControlStates.THROTTLE.ordinal()] = throttle;
+	}
+	
+	@Override
+	public void setControlState(ControlStates control, short value){
+		if(control.equals(ControlStates.THROTTLE)){
+			throttle = (byte) value;
+		}else{
+			super.setControlState(control, value);
+		}
+	}
 			
     @Override
 	public void readFromNBT(NBTTagCompound tagCompound){
@@ -293,21 +324,31 @@ public abstract class EntityMultipartE_Vehicle extends EntityMultipartD_Moving{
 		this.electricPower=tagCompound.getDouble("electricPower");
 		
 		lightsOn.clear();
-		String lightsOnString = tagCompound.getString("lightsOn");
-		while(!lightsOnString.isEmpty()){
-			String lightName = lightsOnString.substring(0, lightsOnString.indexOf(','));
+		if(loadedSaveVersion >= 1){
+			int lightBits = tagCompound.getInteger("lights");
 			for(LightTypes light : LightTypes.values()){
-				if(light.name().equals(lightName)){
+				if((lightBits & (1 << light.saveBit)) != 0){
 					lightsOn.add(light);
-					break;
 				}
 			}
-			lightsOnString = lightsOnString.substring(lightsOnString.indexOf(',') + 1);
+		}else{
+			String lightsOnString = tagCompound.getString("lightsOn");
+			while(!lightsOnString.isEmpty()){
+				String lightName = lightsOnString.substring(0, lightsOnString.indexOf(','));
+				for(LightTypes light : LightTypes.values()){
+					if(light.name().equals(lightName)){
+						lightsOn.add(light);
+						break;
+					}
+				}
+				lightsOnString = lightsOnString.substring(lightsOnString.indexOf(',') + 1);
+			}
 		}
 		
+		NBTTagList instrumentTagList = tagCompound.getTagList("instruments", 8);
 		for(byte i = 0; i<pack.motorized.instruments.size(); ++i){
-			if(tagCompound.hasKey("instrumentInSlot" + i)){
-				String instrumentInSlot = tagCompound.getString("instrumentInSlot" + i);
+			String instrumentInSlot = i < instrumentTagList.tagCount() ? instrumentTagList.getStringTagAt(i) : tagCompound.getString("instrumentInSlot" + i);
+			if(!instrumentInSlot.isEmpty()){
 				VehicleInstrument instrument = new VehicleInstrument(instrumentInSlot);
 				//Check to prevent loading of faulty instruments for the wrong vehicle due to updates or stupid people.
 				if(instrument != null && instrument.pack.general.validVehicles.contains(this.pack.general.type)){
@@ -324,39 +365,42 @@ public abstract class EntityMultipartE_Vehicle extends EntityMultipartD_Moving{
 		tagCompound.setDouble("fuel", this.fuel);
 		tagCompound.setDouble("electricPower", this.electricPower);
 		
-		String lightsOnString = "";
+		int lightBits = 0;
 		for(LightTypes light : this.lightsOn){
-			lightsOnString += light.name() + ",";
+			lightBits |= 1 << light.saveBit;
 		}
-		tagCompound.setString("lightsOn", lightsOnString);
+		tagCompound.setInteger("lights", lightBits);
 		
-		String[] instrumentsInSlots = new String[pack.motorized.instruments.size()];
-		for(byte i=0; i<instrumentsInSlots.length; ++i){
-			if(instruments.containsKey(i)){
-				tagCompound.setString("instrumentInSlot" + i, instruments.get(i).name);
-			}
+		//Instruments are saved in slot order, with empty strings for empty slots.
+		NBTTagList instrumentTagList = new NBTTagList();
+		for(byte i=0; i<pack.motorized.instruments.size(); ++i){
+			instrumentTagList.appendTag(new NBTTagString(instruments.containsKey(i) ? instruments.get(i).name : ""));
 		}
+		tagCompound.setTag("instruments", instrumentTagList);
 		return tagCompound;
 	}
 	
 	public enum LightTypes{
-		NAVIGATIONLIGHT(false),
-		STROBELIGHT(false),
-		TAXILIGHT(true),
-		LANDINGLIGHT(true),
-		BRAKELIGHT(false),
-		BACKUPLIGHT(false),
-		LEFTTURNLIGHT(false),
-		RIGHTTURNLIGHT(false),
-		LEFTINDICATORLIGHT(false),
-		RIGHTINDICATORLIGHT(false),
-		RUNNINGLIGHT(false),
-		HEADLIGHT(true),
-		EMERGENCYLIGHT(false);
+		NAVIGATIONLIGHT(0, false),
+		STROBELIGHT(1, false),
+		TAXILIGHT(2, true),
+		LANDINGLIGHT(3, true),
+		BRAKELIGHT(4, false),
+		BACKUPLIGHT(5, false),
+		LEFTTURNLIGHT(6, false),
+		RIGHTTURNLIGHT(7, false),
+		LEFTINDICATORLIGHT(8, false),
+		RIGHTINDICATORLIGHT(9, false),
+		RUNNINGLIGHT(10, false),
+		HEADLIGHT(11, true),
+		EMERGENCYLIGHT(12, false);
 		
+		/**Bit this light is saved in.  Never change these, and give new lights a new one, as saves depend on them.*/
+		public final byte saveBit;
 		public final boolean hasBeam;
 		
-		private LightTypes(boolean hasBeam){
+		private LightTypes(int saveBit, boolean hasBeam){
+			this.saveBit = (byte) saveBit;
 			this.hasBeam = hasBeam;
 		}
 	}
@@ -7,7 +7,6 @@ import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartEngineCar;
 import minecrafttransportsimulator.multipart.parts.PartGroundDevice;
-import minecrafttransportsimulator.packets.control.SteeringPacket;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
@@ -89,7 +88,6 @@ public final class EntityMultipartF_Car extends EntityMultipartE_Vehicle{
 	protected void dampenControlSurfaces(){
 		if(steeringCooldown==0){
 			if(steeringAngle != 0){
-				MTS.MTSNet.sendToAll(new SteeringPacket(this.getEntityId(), steeringAngle < 0, (short) 0));
 				steeringAngle += steeringAngle < 0 ? 20 : -20;
 			}
 		}else{
@@ -126,6 +124,24 @@ public final class EntityMultipartF_Car extends EntityMultipartE_Vehicle{
 		return -steeringAngle/10F;
 	}
 	
+	@Override
+	protected void getControlState(short[] state){
+		super.getControlState(state);
+		state[ControlStates.STEERING.ordinal()] = steeringAngle;
+	}
+	
+	@Override
+	public void setControlState(ControlStates control, short value){
+		if(control.equals(ControlStates.STEERING)){
+			steeringAngle = value;
+		}else{
+			if(control.equals(ControlStates.PARKING_BRAKE) && value != 0 && !parkingBrakeOn && pack != null && pack.car.isBigTruck){
+				MTS.proxy.playSound(getPositionVector(), MTS.MODID + ":air_brake_activating", 1.0F, 1);
+			}
+			super.setControlState(control, value);
+		}
+	}
+	
     @Override
 	public void readFromNBT(NBTTagCompound tagCompound){
 		super.readFromNBT(tagCompound);
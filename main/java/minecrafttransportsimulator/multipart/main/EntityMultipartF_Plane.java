@@ -1,12 +1,6 @@
 package minecrafttransportsimulator.multipart.main;
 
-import minecrafttransportsimulator.MTS;
-import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartPropeller;
-import minecrafttransportsimulator.packets.control.AileronPacket;
-import minecrafttransportsimulator.packets.control.ElevatorPacket;
-import minecrafttransportsimulator.packets.control.RudderPacket;
-import minecrafttransportsimulator.systems.RotationSystem;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
@@ -77,7 +71,7 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
 		momentYaw = (float) (3*currentMass);
 		currentWingArea = pack.plane.wingArea + pack.plane.wingArea*flapAngle/250F;
 		
-		verticalVec = RotationSystem.getRotatedY(rotationPitch, rotationYaw, rotationRoll);
+		verticalVec = getRotationMatrix().getRotatedYAxis();
 		sideVec = headingVec.crossProduct(verticalVec);
 		velocityVec = new Vec3d(motionX, motionY, motionZ);
 		velocity = velocityVec.dotProduct(headingVec);
@@ -94,12 +88,10 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
 	@Override
 	protected void getForcesAndMotions(){
 		thrustForce = thrustTorque = 0;
-		for(APart part : this.getMultipartParts()){
-			if(part instanceof PartPropeller){
-				thrust = ((PartPropeller) part).getThrustForce();
-				thrustForce += thrust;
-				thrustTorque += thrust*part.offset.xCoord;
-			}
+		for(PartPropeller propeller : this.getMultipartPartsOfType(PartPropeller.class)){
+			thrust = propeller.getThrustForce();
+			thrustForce += thrust;
+			thrustTorque += thrust*propeller.offset.xCoord;
 		}
 		
 		dragForce = 0.5F*airDensity*velocity*velocity*currentWingArea*(dragCoeff + wingLiftCoeff*wingLiftCoeff/(Math.PI*pack.plane.wingSpan*pack.plane.wingSpan/currentWingArea*0.8));		
@@ -127,7 +119,6 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
 	protected void dampenControlSurfaces(){
 		if(aileronCooldown==0){
 			if(aileronAngle != 0){
-				MTS.MTSNet.sendToAll(new AileronPacket(this.getEntityId(), aileronAngle < 0, (short) 0));
 				aileronAngle += aileronAngle < 0 ? 6 : -6;
 			}
 		}else{
@@ -135,7 +126,6 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
 		}
 		if(elevatorCooldown==0){
 			if(elevatorAngle != 0){
-				MTS.MTSNet.sendToAll(new ElevatorPacket(this.getEntityId(), elevatorAngle < 0, (short) 0));
 				elevatorAngle += elevatorAngle < 0 ? 6 : -6;
 			}
 		}else{
@@ -143,7 +133,6 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
 		}
 		if(rudderCooldown==0){
 			if(rudderAngle != 0){
-				MTS.MTSNet.sendToAll(new RudderPacket(this.getEntityId(), rudderAngle < 0, (short) 0));
 				rudderAngle += rudderAngle < 0 ? 6 : -6;
 			}
 		}else{
@@ -151,6 +140,32 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
 		}
 	}
 	
+	@Override
+	protected void getControlState(short[] state){
+		super.getControlState(state);
+		state[ControlStates.AILERON.ordinal()] = aileronAngle;
+		state[ControlStates.ELEVATOR.ordinal()] = elevatorAngle;
+		state[ControlStates.RUDDER.ordinal()] = rudderAngle;
+		state[ControlStates.FLAP.ordinal()] = flapAngle;
+		state[ControlStates.AILERON_TRIM.ordinal()] = aileronTrim;
+		state[ControlStates.ELEVATOR_TRIM.ordinal()] = elevatorTrim;
+		state[ControlStates.RUDDER_TRIM.ordinal()] = rudderTrim;
+	}
+	
+	@Override
+	public void setControlState(ControlStates control, short value){
+		switch(control){
+			case AILERON: aileronAngle = value; break;
+			case ELEVATOR: elevatorAngle = value; break;
+			case RUDDER: rudderAngle = value; break;
+			case FLAP: flapAngle = value; break;
+			case AILERON_TRIM: aileronTrim = value; break;
+			case ELEVATOR_TRIM: elevatorTrim = value; break;
+			case RUDDER_TRIM: rudderTrim = value; break;
+			default: super.setControlState(control, value); break;
+		}
+	}
+	
 	@Override
 	public float getSteerAngle(){
 		return -rudderAngle/10F;
@@ -173,25 +188,32 @@ public final class EntityMultipartF_Plane extends EntityMultipartE_Vehicle{
     @Override
 	public void readFromNBT(NBTTagCompound tagCompound){
 		super.readFromNBT(tagCompound);
-		this.aileronAngle=tagCompound.getShort("aileronAngle");
-		this.elevatorAngle=tagCompound.getShort("elevatorAngle");
-		this.rudderAngle=tagCompound.getShort("rudderAngle");
-		this.flapAngle=tagCompound.getShort("flapAngle");
-		this.aileronTrim=tagCompound.getShort("aileronTrim");
-		this.elevatorTrim=tagCompound.getShort("elevatorTrim");
-		this.rudderTrim=tagCompound.getShort("rudderTrim");
+		if(loadedSaveVersion >= 1){
+			int[] controls = tagCompound.getIntArray("controls");
+			if(controls.length == 7){
+				this.aileronAngle=(short) controls[0];
+				this.elevatorAngle=(short) controls[1];
+				this.rudderAngle=(short) controls[2];
+				this.flapAngle=(short) controls[3];
+				this.aileronTrim=(short) controls[4];
+				this.elevatorTrim=(short) controls[5];
+				this.rudderTrim=(short) controls[6];
+			}
+		}else{
+			this.aileronAngle=tagCompound.getShort("aileronAngle");
+			this.elevatorAngle=tagCompound.getShort("elevatorAngle");
+			this.rudderAngle=tagCompound.getShort("rudderAngle");
+			this.flapAngle=tagCompound.getShort("flapAngle");
+			this.aileronTrim=tagCompound.getShort("aileronTrim");
+			this.elevatorTrim=tagCompound.getShort("elevatorTrim");
+			this.rudderTrim=tagCompound.getShort("rudderTrim");
+		}
 	}
     
 	@Override
 	public NBTTagCompound writeToNBT(NBTTagCompound tagCompound){
 		super.writeToNBT(tagCompound);
-		tagCompound.setShort("aileronAngle", this.aileronAngle);
-		tagCompound.setShort("elevatorAngle", this.elevatorAngle);
-		tagCompound.setShort("rudderAngle", this.rudderAngle);
-		tagCompound.setShort("flapAngle", this.flapAngle);
-		tagCompound.setShort("aileronTrim", this.aileronTrim);
-		tagCompound.setShort("elevatorTrim", this.elevatorTrim);
-		tagCompound.setShort("rudderTrim", this.rudderTrim);
+		tagCompound.setIntArray("controls", new int[]{aileronAngle, elevatorAngle, rudderAngle, flapAngle, aileronTrim, elevatorTrim, rudderTrim});
 		return tagCompound;
 	}
 }
\ No newline at end of file
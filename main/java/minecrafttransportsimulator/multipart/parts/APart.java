@@ -6,7 +6,6 @@ import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
 import minecrafttransportsimulator.dataclasses.PackPartObject;
 import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
 import minecrafttransportsimulator.systems.PackParserSystem;
-import minecrafttransportsimulator.systems.RotationSystem;
 import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.Item;
@@ -48,7 +47,7 @@ public abstract class APart{
 		this.offset = new Vec3d(packPart.pos[0], packPart.pos[1], packPart.pos[2]);
 		this.partName = partName;
 		this.pack = PackParserSystem.getPartPack(partName);
-		this.partPos = RotationSystem.getRotatedPoint(this.offset, multipart.rotationPitch, multipart.rotationYaw, multipart.rotationRoll).add(this.multipart.getPositionVector());
+		this.partPos = multipart.getRotationMatrix().rotateAndOffset(this.offset, multipart.posX, multipart.posY, multipart.posZ);
 		this.partRotation = packPart.rot != null ? new Vec3d(packPart.rot[0], packPart.rot[1], packPart.rot[2]) : Vec3d.ZERO;
 		this.isController = packPart.isController;
 		this.turnsWithSteer = packPart.turnsWithSteer;
@@ -80,7 +79,7 @@ public abstract class APart{
 	 * Use this for reactions that this part can take based on its surroundings if need be.
 	 */
 	public void updatePart(){
-		this.partPos = RotationSystem.getRotatedPoint(this.offset, multipart.rotationPitch, multipart.rotationYaw, multipart.rotationRoll).add(this.multipart.getPositionVector());
+		this.partPos = multipart.getRotationMatrix().rotateAndOffset(this.offset, multipart.posX, multipart.posY, multipart.posZ);
 	}
 	
 	/**Called when the master multipart removes this part.
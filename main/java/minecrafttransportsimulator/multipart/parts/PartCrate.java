@@ -6,12 +6,13 @@ import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
 import minecrafttransportsimulator.packets.general.PacketChat;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.inventory.IInventoryChangedListener;
 import net.minecraft.inventory.InventoryBasic;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 
-public final class PartCrate extends APart{
+public final class PartCrate extends APart implements IInventoryChangedListener{
 	public final InventoryBasic crateInventory;
 	
 	public PartCrate(EntityMultipartD_Moving multipart, PackPart packPart, String partName, NBTTagCompound dataTag){
@@ -23,6 +24,13 @@ public final class PartCrate extends APart{
             byte slot = (byte) (stackTag.getByte("Slot") & 255);
             crateInventory.setInventorySlotContents(slot, ItemStack.loadItemStackFromNBT(stackTag));
         }
+        crateInventory.addInventoryChangeListener(this);
+	}
+	
+	@Override
+	public void onInventoryChanged(InventoryBasic inventory){
+		//Contents changed, so the multipart's mass and saved data did too.
+		multipart.markMassDirty();
 	}
 	
 	@Override
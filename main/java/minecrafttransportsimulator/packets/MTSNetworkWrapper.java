@@ -0,0 +1,133 @@
+package minecrafttransportsimulator.packets;
+
+import minecrafttransportsimulator.systems.NetworkProfilerSystem;
+import minecrafttransportsimulator.systems.NetworkSystem;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.common.DimensionManager;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.network.NetworkRegistry.TargetPoint;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import net.minecraftforge.fml.common.network.simpleimpl.SimpleNetworkWrapper;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**Network wrapper that tells the {@link NetworkProfilerSystem} about every message sent and received.
+ * Handlers are wrapped as they are registered, so packets don't need to know they are being profiled.
+ * Only the handler's onMessage call is timed, not the tasks it schedules on the main thread.
+ * If the profiler isn't enabled, the only extra work is the check to see if it is.
+ * This is also where {@link SlotIndexedPacket}s are sent with offsets to the players whose slot table for
+ * the packet's multipart pack doesn't match ours.  Everyone else still gets the slot index.
+ *
+ * @author don_bruce
+ */
+public class MTSNetworkWrapper extends SimpleNetworkWrapper{
+
+	public MTSNetworkWrapper(String channelName){
+		super(channelName);
+	}
+
+	@Override
+	public <REQ extends IMessage, REPLY extends IMessage> void registerMessage(IMessageHandler<? super REQ, ? extends REPLY> messageHandler, Class<REQ> requestMessageType, int discriminator, Side side){
+		super.registerMessage(new ProfiledHandler<REQ, REPLY>(messageHandler, side.equals(Side.SERVER)), requestMessageType, discriminator, side);
+	}
+
+	@Override
+	public void sendToAll(IMessage message){
+		if(message instanceof SlotIndexedPacket && NetworkSystem.hasSlotTableMismatches(((SlotIndexedPacket) message).getSlotTablePackName())){
+			//Some players need offsets rather than the slot index, so send to each player on their own.
+			for(EntityPlayerMP player : FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getPlayerList()){
+				sendTo(message, player);
+			}
+			return;
+		}
+		if(NetworkProfilerSystem.isEnabled()){
+			NetworkProfilerSystem.recordSent(message, false, FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getCurrentPlayerCount());
+		}
+		super.sendToAll(message);
+	}
+
+	@Override
+	public void sendTo(IMessage message, EntityPlayerMP player){
+		if(NetworkProfilerSystem.isEnabled()){
+			NetworkProfilerSystem.recordSent(message, false, 1);
+		}
+		if(message instanceof SlotIndexedPacket && NetworkSystem.hasSlotTableMismatch(player, ((SlotIndexedPacket) message).getSlotTablePackName())){
+			//Messages are written as they are sent, so we can switch to offsets just for this player.
+			((SlotIndexedPacket) message).setSlotIndexDisabled(true);
+			super.sendTo(message, player);
+			((SlotIndexedPacket) message).setSlotIndexDisabled(false);
+		}else{
+			super.sendTo(message, player);
+		}
+	}
+
+	@Override
+	public void sendToAllAround(IMessage message, TargetPoint point){
+		if(NetworkProfilerSystem.isEnabled()){
+			int receivers = 0;
+			WorldServer world = DimensionManager.getWorld(point.dimension);
+			if(world != null){
+				for(EntityPlayer player : world.playerEntities){
+					if(player.getDistanceSq(point.x, point.y, point.z) < point.range*point.range){
+						++receivers;
+					}
+				}
+			}
+			NetworkProfilerSystem.recordSent(message, false, receivers);
+		}
+		super.sendToAllAround(message, point);
+	}
+
+	@Override
+	public void sendToDimension(IMessage message, int dimensionId){
+		if(NetworkProfilerSystem.isEnabled()){
+			WorldServer world = DimensionManager.getWorld(dimensionId);
+			NetworkProfilerSystem.recordSent(message, false, world != null ? world.playerEntities.size() : 0);
+		}
+		super.sendToDimension(message, dimensionId);
+	}
+
+	@Override
+	public void sendToServer(IMessage message){
+		if(NetworkProfilerSystem.isEnabled()){
+			NetworkProfilerSystem.recordSent(message, true, 1);
+		}
+		super.sendToServer(message);
+	}
+
+	/**Packets that can find a part by the index of its pack slot.  These need to be sent with offsets to
+	 * players whose slot table for the multipart's pack doesn't match ours, as the index means a different slot to them.*/
+	public static interface SlotIndexedPacket{
+		/**Returns the name of the multipart pack the slot index is for, or null if this packet isn't sending a slot index.*/
+		public String getSlotTablePackName();
+		
+		/**Sets if this packet should be written with offsets rather than its slot index.*/
+		public void setSlotIndexDisabled(boolean disabled);
+	}
+
+	private static class ProfiledHandler<REQ extends IMessage, REPLY extends IMessage> implements IMessageHandler<REQ, REPLY>{
+		private final IMessageHandler<? super REQ, ? extends REPLY> handler;
+		private final boolean toServer;
+
+		private ProfiledHandler(IMessageHandler<? super REQ, ? extends REPLY> handler, boolean toServer){
+			this.handler = handler;
+			this.toServer = toServer;
+		}
+
+		@Override
+		public REPLY onMessage(REQ message, MessageContext ctx){
+			if(NetworkProfilerSystem.isEnabled()){
+				int messageSize = NetworkProfilerSystem.getMessageSize(message);
+				long startTime = System.nanoTime();
+				REPLY reply = handler.onMessage(message, ctx);
+				NetworkProfilerSystem.recordReceived(message, toServer, messageSize, System.nanoTime() - startTime);
+				return reply;
+			}else{
+				return handler.onMessage(message, ctx);
+			}
+		}
+	}
+}
@@ -1,10 +1,9 @@
 package minecrafttransportsimulator.packets.control;
 
 import io.netty.buffer.ByteBuf;
-import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartF_Plane;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -44,7 +43,8 @@ public class AileronPacket implements IMessage{
 
 	public static class Handler implements IMessageHandler<AileronPacket, IMessage>{
 		public IMessage onMessage(final AileronPacket message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			//Packets that set the angle outright replace any still waiting for this multipart.
+			PacketQueueSystem.schedule(ctx, message.packetType == 0 ? AileronPacket.class : null, message.id, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartF_Plane thisEntity;
@@ -76,7 +76,8 @@ public class AileronPacket implements IMessage{
 							thisEntity.aileronCooldown = Short.MAX_VALUE;
 						}
 						if(ctx.side.isServer()){
-							MTS.MTSNet.sendToAll(message);
+							//Clients get this change with the next control state packet.
+							thisEntity.wakeUp();
 						}
 					}
 				}
@@ -4,8 +4,8 @@ import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
 import minecrafttransportsimulator.multipart.main.EntityMultipartF_Car;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -35,7 +35,7 @@ public class BrakePacket implements IMessage{
 
 	public static class Handler implements IMessageHandler<BrakePacket, IMessage>{
 		public IMessage onMessage(final BrakePacket message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartD_Moving multipart;
@@ -56,7 +56,8 @@ public class BrakePacket implements IMessage{
 							}
 						}
 						if(ctx.side.isServer()){
-							MTS.MTSNet.sendToAll(message);
+							//Clients get this change with the next control state packet.
+							multipart.wakeUp();
 						}
 					}
 				}
@@ -1,10 +1,9 @@
 package minecrafttransportsimulator.packets.control;
 
 import io.netty.buffer.ByteBuf;
-import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartF_Plane;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -34,7 +33,7 @@ public class FlapPacket implements IMessage{
 
 	public static class Handler implements IMessageHandler<FlapPacket, IMessage>{
 		public IMessage onMessage(final FlapPacket message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartF_Plane thisEntity;
@@ -47,7 +46,8 @@ public class FlapPacket implements IMessage{
 						if(ctx.side.isServer()){
 							if(message.flapAngle + thisEntity.flapAngle >= 0 && message.flapAngle + thisEntity.flapAngle <= 350){
 								thisEntity.flapAngle += message.flapAngle;
-								MTS.MTSNet.sendToAll(message);
+								//Clients get this change with the next control state packet.
+								thisEntity.wakeUp();
 							}
 						}else{
 							thisEntity.flapAngle += message.flapAngle;
@@ -3,8 +3,8 @@ package minecrafttransportsimulator.packets.control;
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartE_Vehicle;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -34,7 +34,7 @@ public class HornPacket implements IMessage{
 
 	public static class Handler implements IMessageHandler<HornPacket, IMessage>{
 		public IMessage onMessage(final HornPacket message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartE_Vehicle thisEntity;
@@ -1,10 +1,9 @@
 package minecrafttransportsimulator.packets.control;
 
 import io.netty.buffer.ByteBuf;
-import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartE_Vehicle;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -34,7 +33,8 @@ public class ThrottlePacket implements IMessage{
 
 	public static class Handler implements IMessageHandler<ThrottlePacket, IMessage>{
 		public IMessage onMessage(final ThrottlePacket message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			//Packets that set the throttle outright replace any still waiting for this vehicle.
+			PacketQueueSystem.schedule(ctx, message.throttle != Byte.MAX_VALUE && message.throttle != Byte.MIN_VALUE ? ThrottlePacket.class : null, message.id, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartE_Vehicle vehicle;
@@ -60,7 +60,8 @@ public class ThrottlePacket implements IMessage{
 							vehicle.throttle = message.throttle;
 						}
 						if(ctx.side.isServer()){
-							MTS.MTSNet.sendToAll(message);
+							//Clients get this change with the next control state packet.
+							vehicle.wakeUp();
 						}
 					}
 				}
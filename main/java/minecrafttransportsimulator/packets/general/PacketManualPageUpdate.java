@@ -1,9 +1,9 @@
 package minecrafttransportsimulator.packets.general;
 
 import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -30,7 +30,7 @@ public class PacketManualPageUpdate implements IMessage{
 	public static class Handler implements IMessageHandler<PacketManualPageUpdate, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketManualPageUpdate message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					ItemStack stack = ctx.getServerHandler().playerEntity.inventory.getCurrentItem();
@@ -2,7 +2,9 @@ package minecrafttransportsimulator.packets.multipart;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import minecrafttransportsimulator.multipart.main.EntityMultipartB_Existing;
 import net.minecraft.client.Minecraft;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
@@ -25,11 +27,41 @@ public abstract class APacketMultipart implements IMessage{
 		buf.writeInt(this.id);
 	}
 	
+	/**
+	 * Writes the multipart ID as a varint rather than a full int.  For packets that are sent often
+	 * and want to save bytes.  Use this instead of calling super.toBytes(), and pair it with {@link #readCompactId(ByteBuf)}.
+	 */
+	protected void writeCompactId(ByteBuf buf){
+		ByteBufUtils.writeVarInt(buf, this.id, 5);
+	}
+	
+	protected void readCompactId(ByteBuf buf){
+		this.id = ByteBufUtils.readVarInt(buf, 5);
+	}
+	
+	/**
+	 * Writes a signed value as a zig-zag varint, so small negative values take as few bytes as small positive ones.
+	 */
+	protected static void writeSignedVarInt(ByteBuf buf, int value){
+		ByteBufUtils.writeVarInt(buf, (value << 1) ^ (value >> 31), 5);
+	}
+	
+	protected static int readSignedVarInt(ByteBuf buf){
+		int value = ByteBufUtils.readVarInt(buf, 5);
+		return (value >>> 1) ^ -(value & 1);
+	}
+	
 	protected static EntityMultipartA_Base getMultipart(APacketMultipart message, MessageContext ctx){
+		EntityMultipartA_Base multipart;
 		if(ctx.side.isServer()){
-			return (EntityMultipartA_Base) ctx.getServerHandler().playerEntity.worldObj.getEntityByID(message.id);
+			multipart = (EntityMultipartA_Base) ctx.getServerHandler().playerEntity.worldObj.getEntityByID(message.id);
 		}else{
-			return (EntityMultipartA_Base) Minecraft.getMinecraft().theWorld.getEntityByID(message.id);
+			multipart = (EntityMultipartA_Base) Minecraft.getMinecraft().theWorld.getEntityByID(message.id);
+		}
+		//Anything sent to a multipart may change it, so make sure it's awake.
+		if(multipart instanceof EntityMultipartB_Existing){
+			((EntityMultipartB_Existing) multipart).wakeUp();
 		}
+		return multipart;
 	}
 }
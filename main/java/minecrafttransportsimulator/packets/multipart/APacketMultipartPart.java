@@ -2,8 +2,22 @@ package minecrafttransportsimulator.packets.multipart;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import minecrafttransportsimulator.packets.MTSNetworkWrapper.SlotIndexedPacket;
+import net.minecraft.util.math.Vec3d;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
-public abstract class APacketMultipartPart extends APacketMultipart{
+/**Base packet for packets about a part location on a multipart.  The location is sent as the index of the
+ * pack slot it's in when possible, and as the full offset when it isn't.  Offsets are only sent if the location
+ * isn't a pack slot, or if the player on the other end has a different slot table for the multipart's pack.
+ * The offset fields are filled in from the slot when the multipart is gotten with {@link #getMultipart(APacketMultipartPart, MessageContext)}.
+ * 
+ * @author don_bruce
+ */
+public abstract class APacketMultipartPart extends APacketMultipart implements SlotIndexedPacket{
+	private int slotIndex;
+	private String multipartName;
+	private boolean slotIndexDisabled;
 	protected double offsetX;
 	protected double offsetY;
 	protected double offsetZ;
@@ -12,6 +26,8 @@ public abstract class APacketMultipartPart extends APacketMultipart{
 	
 	public APacketMultipartPart(EntityMultipartA_Base multipart, double offsetX, double offsetY, double offsetZ){
 		super(multipart);
+		this.slotIndex = multipart.getSlotIndexForPacket(offsetX, offsetY, offsetZ);
+		this.multipartName = multipart.multipartName;
 		this.offsetX = offsetX;
 		this.offsetY = offsetY;
 		this.offsetZ = offsetZ;
@@ -20,16 +36,52 @@ public abstract class APacketMultipartPart extends APacketMultipart{
 	@Override
 	public void fromBytes(ByteBuf buf){
 		super.fromBytes(buf);
-		this.offsetX = buf.readDouble();
-		this.offsetY = buf.readDouble();
-		this.offsetZ = buf.readDouble();
+		this.slotIndex = ByteBufUtils.readVarInt(buf, 5) - 1;
+		if(slotIndex == -1){
+			this.offsetX = buf.readDouble();
+			this.offsetY = buf.readDouble();
+			this.offsetZ = buf.readDouble();
+		}
 	}
 
 	@Override
 	public void toBytes(ByteBuf buf){
 		super.toBytes(buf);
-		buf.writeDouble(this.offsetX);
-		buf.writeDouble(this.offsetY);
-		buf.writeDouble(this.offsetZ);
+		//Slot index is shifted up by one so offset-addressed packets are 0 and still fit in one byte.
+		int sentSlotIndex = slotIndexDisabled ? -1 : slotIndex;
+		ByteBufUtils.writeVarInt(buf, sentSlotIndex + 1, 5);
+		if(sentSlotIndex == -1){
+			buf.writeDouble(this.offsetX);
+			buf.writeDouble(this.offsetY);
+			buf.writeDouble(this.offsetZ);
+		}
+	}
+	
+	@Override
+	public String getSlotTablePackName(){
+		return slotIndex != -1 ? multipartName : null;
+	}
+	
+	@Override
+	public void setSlotIndexDisabled(boolean disabled){
+		this.slotIndexDisabled = disabled;
+	}
+	
+	/**
+	 * Gets the multipart for this packet and sets the offsets from the sent slot index.
+	 * Returns null if the slot index isn't valid for the multipart, as we don't know where the part would go.
+	 */
+	protected static EntityMultipartA_Base getMultipart(APacketMultipartPart message, MessageContext ctx){
+		EntityMultipartA_Base multipart = APacketMultipart.getMultipart(message, ctx);
+		if(multipart != null && message.slotIndex != -1){
+			Vec3d slotPos = multipart.getSlotPositionFromPacket(message.slotIndex);
+			if(slotPos == null){
+				return null;
+			}
+			message.offsetX = slotPos.xCoord;
+			message.offsetY = slotPos.yCoord;
+			message.offsetZ = slotPos.zCoord;
+		}
+		return multipart;
 	}
 }
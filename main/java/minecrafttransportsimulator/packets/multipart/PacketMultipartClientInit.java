@@ -1,32 +1,48 @@
 package minecrafttransportsimulator.packets.multipart;
 
-import minecrafttransportsimulator.MTS;
+import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.NetworkSystem;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
 public class PacketMultipartClientInit extends APacketMultipart{
+	private boolean slotTableMismatched;
 
 	public PacketMultipartClientInit(){}
 	
 	public PacketMultipartClientInit(EntityMultipartA_Base multipart){
 		super(multipart);
+		this.slotTableMismatched = multipart.isSlotTableMismatched();
+	}
+	
+	@Override
+	public void fromBytes(ByteBuf buf){
+		super.fromBytes(buf);
+		this.slotTableMismatched = buf.readBoolean();
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf){
+		super.toBytes(buf);
+		buf.writeBoolean(this.slotTableMismatched);
 	}
 
 	public static class Handler implements IMessageHandler<PacketMultipartClientInit, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartClientInit message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartA_Base multipart = getMultipart(message, ctx);
 					if(multipart!=null){
-						NBTTagCompound tagCompound = new NBTTagCompound();
-						multipart.writeToNBT(tagCompound);
-						MTS.MTSNet.sendTo(new PacketMultipartClientInitResponse(multipart, tagCompound), ctx.getServerHandler().playerEntity);
+						//If the client found its slot table doesn't match ours, stop sending it slot indexes for this pack.
+						if(message.slotTableMismatched){
+							NetworkSystem.addSlotTableMismatch(ctx.getServerHandler().playerEntity, multipart.multipartName);
+						}
+						NetworkSystem.queueClientInit(multipart, ctx.getServerHandler().playerEntity);
 					}
 				}
 			});
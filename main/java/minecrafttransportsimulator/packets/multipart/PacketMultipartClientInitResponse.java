@@ -1,45 +1,202 @@
 package minecrafttransportsimulator.packets.multipart;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import minecrafttransportsimulator.dataclasses.PackMultipartObject;
+import minecrafttransportsimulator.dataclasses.PackMultipartSlotTable;
+import minecrafttransportsimulator.dataclasses.PackMultipartSlotTable.PackSlot;
 import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import minecrafttransportsimulator.multipart.parts.APart;
+import minecrafttransportsimulator.systems.MetricsSystem;
+import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
+import net.minecraft.nbt.NBTBase;
+import net.minecraft.nbt.NBTPrimitive;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
+/**Packet sent to clients with the full state of a multipart when they first see it.
+ * Rather than sending the multipart's NBT as-is, parts are sent as the index of the pack slot they
+ * are in plus only the part data that isn't a default value.  Offsets are worked out from the slot
+ * on the client, and missing data reads back as the default, so the client ends up with the same NBT.
+ * Parts in places the pack doesn't know about keep their offsets and are sent without a slot index.
+ * The checksum of the server's slot table is sent too.  If the client's doesn't match, it asks again
+ * and tells the server, and from then on the server sends that player offsets for every multipart with that pack.
+ * These are sent a few at a time by the {@link minecrafttransportsimulator.systems.NetworkSystem}
+ * so players that see lots of multiparts at once don't get them all in one tick.
+ *
+ * @author don_bruce
+ */
 public class PacketMultipartClientInitResponse extends APacketMultipart{
+	private int slotTableChecksum;
 	private NBTTagCompound tagCompound;
+	private List<PartEntry> partEntries;
+	/**Bytes of this packet, kept from the first time it's written so sizing and sending don't write the NBT again.*/
+	private ByteBuf data;
 
 	public PacketMultipartClientInitResponse(){}
-	
-	public PacketMultipartClientInitResponse(EntityMultipartA_Base multipart, NBTTagCompound tagCompound){
+
+	public PacketMultipartClientInitResponse(EntityMultipartA_Base multipart, boolean useSlotIndexes){
 		super(multipart);
-		this.tagCompound=tagCompound;
+		this.slotTableChecksum = multipart.pack != null ? multipart.getSlotTable().getChecksum() : 0;
+		this.tagCompound = multipart.getClientInitTag();
+		this.partEntries = new ArrayList<PartEntry>();
+		for(APart part : multipart.getMultipartParts()){
+			if(part.isValid()){
+				NBTTagCompound partTag = part.getPartNBTTag();
+				int slotIndex = useSlotIndexes ? multipart.getSlotIndexForPacket(part.offset.xCoord, part.offset.yCoord, part.offset.zCoord) : -1;
+				if(slotIndex == -1){
+					partTag.setDouble("offsetX", part.offset.xCoord);
+					partTag.setDouble("offsetY", part.offset.yCoord);
+					partTag.setDouble("offsetZ", part.offset.zCoord);
+				}
+				removeDefaultValues(partTag);
+				partEntries.add(new PartEntry(slotIndex, part.partName, partTag));
+			}
+		}
 	}
-	
+
 	@Override
 	public void fromBytes(ByteBuf buf){
 		super.fromBytes(buf);
-		this.tagCompound=ByteBufUtils.readTag(buf);
+		this.slotTableChecksum = buf.readInt();
+		this.tagCompound = ByteBufUtils.readTag(buf);
+		int partCount = ByteBufUtils.readVarInt(buf, 5);
+		this.partEntries = new ArrayList<PartEntry>(partCount);
+		for(int i=0; i<partCount; ++i){
+			int slotIndex = ByteBufUtils.readVarInt(buf, 5) - 1;
+			String partName = ByteBufUtils.readUTF8String(buf);
+			NBTTagCompound partTag = buf.readBoolean() ? ByteBufUtils.readTag(buf) : new NBTTagCompound();
+			partEntries.add(new PartEntry(slotIndex, partName, partTag));
+		}
 	}
 
 	@Override
 	public void toBytes(ByteBuf buf){
+		ByteBuf packetData = getData();
+		buf.writeBytes(packetData, packetData.readerIndex(), packetData.readableBytes());
+	}
+	
+	/**
+	 * Returns the size of this packet in bytes.  The packet is only written the first time this or toBytes is called.
+	 */
+	public int getSize(){
+		return getData().readableBytes();
+	}
+	
+	private ByteBuf getData(){
+		if(data == null){
+			data = Unpooled.buffer();
+			writeData(data);
+		}
+		return data;
+	}
+	
+	private void writeData(ByteBuf buf){
 		super.toBytes(buf);
+		buf.writeInt(this.slotTableChecksum);
 		ByteBufUtils.writeTag(buf, this.tagCompound);
+		ByteBufUtils.writeVarInt(buf, partEntries.size(), 5);
+		for(PartEntry entry : partEntries){
+			//Slot index is shifted up by one so parts without a slot are 0 and still fit in one byte.
+			ByteBufUtils.writeVarInt(buf, entry.slotIndex + 1, 5);
+			ByteBufUtils.writeUTF8String(buf, entry.partName);
+			buf.writeBoolean(!entry.partTag.hasNoTags());
+			if(!entry.partTag.hasNoTags()){
+				ByteBufUtils.writeTag(buf, entry.partTag);
+			}
+		}
+	}
+
+	/**
+	 * Returns the full NBT of the multipart, with the part list built back up from the part entries.
+	 * Returns null if parts were sent with slot indexes and our slot table doesn't match the server's.
+	 */
+	private NBTTagCompound getFullTag(){
+		PackMultipartObject pack = PackParserSystem.getMultipartPack(tagCompound.getString("multipartName"));
+		PackMultipartSlotTable slotTable = pack != null ? PackParserSystem.getMultipartSlotTable(pack) : null;
+		NBTTagList partTagList = new NBTTagList();
+		for(PartEntry entry : partEntries){
+			NBTTagCompound partTag = entry.partTag;
+			partTag.setString("partName", entry.partName);
+			if(entry.slotIndex != -1){
+				if(slotTable == null || slotTable.getChecksum() != slotTableChecksum){
+					return null;
+				}
+				PackSlot slot = slotTable.getSlot(entry.slotIndex);
+				partTag.setDouble("offsetX", slot.pos.xCoord);
+				partTag.setDouble("offsetY", slot.pos.yCoord);
+				partTag.setDouble("offsetZ", slot.pos.zCoord);
+			}
+			partTagList.appendTag(partTag);
+		}
+		NBTTagCompound fullTag = tagCompound.copy();
+		fullTag.setTag("Parts", partTagList);
+		return fullTag;
+	}
+
+	/**
+	 * Removes all top-level values that are zero, false, or empty from the passed-in tag.
+	 * Reading a missing value from NBT gives these same defaults, so nothing is lost.
+	 */
+	private static void removeDefaultValues(NBTTagCompound tag){
+		List<String> defaultKeys = new ArrayList<String>();
+		for(String key : tag.getKeySet()){
+			NBTBase value = tag.getTag(key);
+			if(value instanceof NBTPrimitive){
+				if(((NBTPrimitive) value).getDouble() == 0){
+					defaultKeys.add(key);
+				}
+			}else if(value instanceof NBTTagString){
+				if(((NBTTagString) value).getString().isEmpty()){
+					defaultKeys.add(key);
+				}
+			}
+		}
+		for(String key : defaultKeys){
+			tag.removeTag(key);
+		}
+	}
+
+	private static class PartEntry{
+		private final int slotIndex;
+		private final String partName;
+		private final NBTTagCompound partTag;
+
+		private PartEntry(int slotIndex, String partName, NBTTagCompound partTag){
+			this.slotIndex = slotIndex;
+			this.partName = partName;
+			this.partTag = partTag;
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketMultipartClientInitResponse, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartClientInitResponse message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartA_Base multipart = getMultipart(message, ctx);
 					if(multipart != null){
-						multipart.readFromNBT(message.tagCompound);
+						NBTTagCompound fullTag = message.getFullTag();
+						if(fullTag == null){
+							//Our pack doesn't match the server's.  Ask again, and have the server use offsets.
+							multipart.markSlotTableMismatched();
+							return;
+						}
+						multipart.readFromNBT(fullTag);
+						if(multipart.getClientInitRequestTime() != 0){
+							MetricsSystem.add("clientInitNanos", System.nanoTime() - multipart.getClientInitRequestTime());
+							MetricsSystem.increment("clientInits");
+						}
 					}
 				}
 			});
@@ -2,7 +2,7 @@ package minecrafttransportsimulator.packets.multipart;
 
 import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
 import minecrafttransportsimulator.multipart.parts.APart;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -18,7 +18,7 @@ public class PacketMultipartClientPartRemoval extends APacketMultipartPart{
 	public static class Handler implements IMessageHandler<PacketMultipartClientPartRemoval, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartClientPartRemoval message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartA_Base multipart = getMultipart(message, ctx);
@@ -1,8 +1,8 @@
 package minecrafttransportsimulator.packets.multipart;
 
 import minecrafttransportsimulator.multipart.main.EntityMultipartE_Vehicle;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import minecrafttransportsimulator.systems.SFXSystem;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -18,7 +18,7 @@ public class PacketMultipartClientRemoval extends APacketMultipart{
 	public static class Handler implements IMessageHandler<PacketMultipartClientRemoval, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartClientRemoval message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartE_Vehicle vehicle = (EntityMultipartE_Vehicle) getMultipart(message, ctx);
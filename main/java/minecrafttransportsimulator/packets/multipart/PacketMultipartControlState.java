@@ -0,0 +1,85 @@
+package minecrafttransportsimulator.packets.multipart;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
+import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving.ControlStates;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**Packet sent to clients with the controls of a multipart that changed since the last one was sent.
+ * This replaces the individual control packets being echoed back to everyone on the server.
+ * A bitmask says which controls are present, and only those values are sent.
+ * 
+ * @author don_bruce
+ */
+public class PacketMultipartControlState extends APacketMultipart{
+	private static final ControlStates[] controls = ControlStates.values();
+	
+	private int mask;
+	private final short[] values = new short[controls.length];
+
+	public PacketMultipartControlState(){}
+	
+	public PacketMultipartControlState(EntityMultipartD_Moving multipart, short[] sentState, short[] currentState){
+		super(multipart);
+		for(byte i=0; i<controls.length; ++i){
+			if(currentState[i] != sentState[i]){
+				mask |= 1 << i;
+				values[i] = currentState[i];
+			}
+		}
+	}
+	
+	/**
+	 * Returns true if any controls are different from the state this packet was made against.
+	 * No need to send this packet if not.
+	 */
+	public boolean hasChanges(){
+		return mask != 0;
+	}
+	
+	@Override
+	public void fromBytes(ByteBuf buf){
+		readCompactId(buf);
+		this.mask = ByteBufUtils.readVarInt(buf, 3);
+		for(byte i=0; i<controls.length; ++i){
+			if((mask & (1 << i)) != 0){
+				values[i] = (short) readSignedVarInt(buf);
+			}
+		}
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf){
+		writeCompactId(buf);
+		ByteBufUtils.writeVarInt(buf, this.mask, 3);
+		for(byte i=0; i<controls.length; ++i){
+			if((mask & (1 << i)) != 0){
+				writeSignedVarInt(buf, values[i]);
+			}
+		}
+	}
+
+	public static class Handler implements IMessageHandler<PacketMultipartControlState, IMessage>{
+		@Override
+		public IMessage onMessage(final PacketMultipartControlState message, final MessageContext ctx){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
+				@Override
+				public void run(){
+					EntityMultipartD_Moving multipart = (EntityMultipartD_Moving) getMultipart(message, ctx);
+					if(multipart != null){
+						for(byte i=0; i<controls.length; ++i){
+							if((message.mask & (1 << i)) != 0){
+								multipart.setControlState(controls[i], message.values[i]);
+							}
+						}
+					}
+				}
+			});
+			return null;
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package minecrafttransportsimulator.packets.multipart;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**Packet that bundles all the delta packets a player gets in a tick.  Saves the framing and
+ * discriminator for each packet, and lets the client apply all of them in one scheduled task
+ * rather than one task per multipart.  Entries are written back-to-back in the delta format.
+ * 
+ * @author don_bruce
+ */
+public class PacketMultipartDeltaBundle implements IMessage{
+	private List<PacketMultipartDeltas> deltas;
+
+	public PacketMultipartDeltaBundle(){}
+	
+	public PacketMultipartDeltaBundle(List<PacketMultipartDeltas> deltas){
+		this.deltas = deltas;
+	}
+	
+	public int getBundleSize(){
+		return deltas.size();
+	}
+	
+	@Override
+	public void fromBytes(ByteBuf buf){
+		int count = ByteBufUtils.readVarInt(buf, 5);
+		this.deltas = new ArrayList<PacketMultipartDeltas>(count);
+		for(int i=0; i<count; ++i){
+			PacketMultipartDeltas delta = new PacketMultipartDeltas();
+			delta.fromBytes(buf);
+			deltas.add(delta);
+		}
+	}
+
+	@Override
+	public void toBytes(ByteBuf buf){
+		ByteBufUtils.writeVarInt(buf, deltas.size(), 5);
+		for(PacketMultipartDeltas delta : deltas){
+			delta.toBytes(buf);
+		}
+	}
+
+	public static class Handler implements IMessageHandler<PacketMultipartDeltaBundle, IMessage>{
+		@Override
+		public IMessage onMessage(final PacketMultipartDeltaBundle message, final MessageContext ctx){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
+				@Override
+				public void run(){
+					for(PacketMultipartDeltas delta : message.deltas){
+						delta.applyDeltas(ctx);
+					}
+				}
+			});
+			return null;
+		}
+	}
+}
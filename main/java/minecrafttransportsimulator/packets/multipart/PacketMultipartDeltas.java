@@ -2,63 +2,136 @@ package minecrafttransportsimulator.packets.multipart;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
+/**Packet sent when clients need to know how a multipart moved.  Deltas are sent as fixed-point values with the precision
+ * set in the config.  Only axes that changed are sent, with a bitmask saying which ones are present,
+ * and the values are written as zig-zag varints, so small deltas only take a byte or two.
+ * The precision is sent as well, so clients with different configs still decode this correctly.
+ * Each packet also says how many server ticks it covers, which clients use to time their playback.
+ * Quantizing loses a bit of each delta, so senders should keep a total of what they've sent using the
+ * values from the getters here, and send the difference between that total and where they are.
+ * That way nothing is lost, and the sum on clients stays within one step of the server.
+ * 
+ * @author don_bruce
+ */
 public class PacketMultipartDeltas extends APacketMultipart{
-	private double deltaX;
-	private double deltaY;
-	private double deltaZ;
-	private float deltaYaw;
-	private float deltaPitch;
-	private float deltaRoll;
+	private byte positionBits;
+	private byte rotationBits;
+	private int ticks;
+	private int deltaX;
+	private int deltaY;
+	private int deltaZ;
+	private int deltaYaw;
+	private int deltaPitch;
+	private int deltaRoll;
 
 	public PacketMultipartDeltas(){}
 	
-	public PacketMultipartDeltas(EntityMultipartD_Moving multipart, double deltaX, double deltaY, double deltaZ, float deltaYaw, float deltaPitch, float deltaRoll){
+	public PacketMultipartDeltas(EntityMultipartD_Moving multipart, int ticks, double deltaX, double deltaY, double deltaZ, float deltaYaw, float deltaPitch, float deltaRoll){
 		super(multipart);
-		this.deltaX=deltaX;
-		this.deltaY=deltaY;
-		this.deltaZ=deltaZ;
-		this.deltaYaw=deltaYaw;
-		this.deltaPitch=deltaPitch;
-		this.deltaRoll=deltaRoll;
+		this.ticks = ticks;
+		this.positionBits = (byte) ConfigSystem.getIntegerConfig("DeltaPositionBits");
+		this.rotationBits = (byte) ConfigSystem.getIntegerConfig("DeltaRotationBits");
+		this.deltaX = (int) Math.round(deltaX*(1 << positionBits));
+		this.deltaY = (int) Math.round(deltaY*(1 << positionBits));
+		this.deltaZ = (int) Math.round(deltaZ*(1 << positionBits));
+		this.deltaYaw = (int) Math.round(deltaYaw*(1 << rotationBits));
+		this.deltaPitch = (int) Math.round(deltaPitch*(1 << rotationBits));
+		this.deltaRoll = (int) Math.round(deltaRoll*(1 << rotationBits));
 	}
 	
 	@Override
 	public void fromBytes(ByteBuf buf){
-		super.fromBytes(buf);;
-		this.deltaX=buf.readDouble();
-		this.deltaY=buf.readDouble();
-		this.deltaZ=buf.readDouble();
-		this.deltaYaw=buf.readFloat();
-		this.deltaPitch=buf.readFloat();
-		this.deltaRoll=buf.readFloat();
+		readCompactId(buf);
+		byte mask = buf.readByte();
+		byte precision = buf.readByte();
+		this.positionBits = (byte) ((precision >> 4) & 15);
+		this.rotationBits = (byte) (precision & 15);
+		this.ticks = ByteBufUtils.readVarInt(buf, 3);
+		this.deltaX = (mask & 1) != 0 ? readSignedVarInt(buf) : 0;
+		this.deltaY = (mask & 2) != 0 ? readSignedVarInt(buf) : 0;
+		this.deltaZ = (mask & 4) != 0 ? readSignedVarInt(buf) : 0;
+		this.deltaYaw = (mask & 8) != 0 ? readSignedVarInt(buf) : 0;
+		this.deltaPitch = (mask & 16) != 0 ? readSignedVarInt(buf) : 0;
+		this.deltaRoll = (mask & 32) != 0 ? readSignedVarInt(buf) : 0;
 	}
 
 	@Override
 	public void toBytes(ByteBuf buf){
-		super.toBytes(buf);
-		buf.writeDouble(this.deltaX);
-		buf.writeDouble(this.deltaY);
-		buf.writeDouble(this.deltaZ);
-		buf.writeFloat(this.deltaYaw);
-		buf.writeFloat(this.deltaPitch);
-		buf.writeFloat(this.deltaRoll);
+		writeCompactId(buf);
+		byte mask = 0;
+		mask |= deltaX != 0 ? 1 : 0;
+		mask |= deltaY != 0 ? 2 : 0;
+		mask |= deltaZ != 0 ? 4 : 0;
+		mask |= deltaYaw != 0 ? 8 : 0;
+		mask |= deltaPitch != 0 ? 16 : 0;
+		mask |= deltaRoll != 0 ? 32 : 0;
+		buf.writeByte(mask);
+		buf.writeByte((positionBits << 4) | rotationBits);
+		ByteBufUtils.writeVarInt(buf, ticks, 3);
+		if(deltaX != 0){writeSignedVarInt(buf, deltaX);}
+		if(deltaY != 0){writeSignedVarInt(buf, deltaY);}
+		if(deltaZ != 0){writeSignedVarInt(buf, deltaZ);}
+		if(deltaYaw != 0){writeSignedVarInt(buf, deltaYaw);}
+		if(deltaPitch != 0){writeSignedVarInt(buf, deltaPitch);}
+		if(deltaRoll != 0){writeSignedVarInt(buf, deltaRoll);}
+	}
+	
+	/**
+	 * Returns how many server ticks these deltas cover.  Normally 1, but can be more if the multipart
+	 * was frozen or the client's prediction was good for a while.
+	 */
+	public int getTicks(){
+		return ticks;
+	}
+	
+	public double getDeltaX(){
+		return deltaX/(double) (1 << positionBits);
+	}
+	
+	public double getDeltaY(){
+		return deltaY/(double) (1 << positionBits);
+	}
+	
+	public double getDeltaZ(){
+		return deltaZ/(double) (1 << positionBits);
+	}
+	
+	public float getDeltaYaw(){
+		return deltaYaw/(float) (1 << rotationBits);
+	}
+	
+	public float getDeltaPitch(){
+		return deltaPitch/(float) (1 << rotationBits);
+	}
+	
+	public float getDeltaRoll(){
+		return deltaRoll/(float) (1 << rotationBits);
+	}
+	
+	/**
+	 * Applies these deltas to the multipart they are for.  Must be called on the main thread.
+	 */
+	void applyDeltas(MessageContext ctx){
+		EntityMultipartD_Moving multipart = (EntityMultipartD_Moving) getMultipart(this, ctx);
+		if(multipart != null){
+			multipart.addServerDeltaPacket(getTicks(), getDeltaX(), getDeltaY(), getDeltaZ(), getDeltaYaw(), getDeltaPitch(), getDeltaRoll());
+		}
 	}
 
 	public static class Handler implements IMessageHandler<PacketMultipartDeltas, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartDeltas message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
-					EntityMultipartD_Moving multipart = (EntityMultipartD_Moving) getMultipart(message, ctx);
-					if(multipart != null){
-						multipart.addToServerDeltas(message.deltaX, message.deltaY, message.deltaZ, message.deltaYaw, message.deltaPitch, message.deltaRoll);
-					}
+					message.applyDeltas(ctx);
 				}
 			});
 			return null;
@@ -2,10 +2,10 @@ package minecrafttransportsimulator.packets.multipart;
 
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartB_Existing;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Items;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -21,7 +21,7 @@ public class PacketMultipartNameTag extends APacketMultipartPlayer{
 	public static class Handler implements IMessageHandler<PacketMultipartNameTag, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartNameTag message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartB_Existing multipart = (EntityMultipartB_Existing) getMultipart(message, ctx);
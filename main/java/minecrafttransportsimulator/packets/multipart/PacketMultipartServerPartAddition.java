@@ -1,7 +1,5 @@
 package minecrafttransportsimulator.packets.multipart;
 
-import java.lang.reflect.Constructor;
-
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
@@ -11,12 +9,12 @@ import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
 import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.systems.PackParserSystem;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.math.Vec3d;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -46,7 +44,7 @@ public class PacketMultipartServerPartAddition extends APacketMultipartPart{
 	public static class Handler implements IMessageHandler<PacketMultipartServerPartAddition, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartServerPartAddition message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					//Check to make sure we can actually add this part before we do so.
@@ -82,9 +80,7 @@ public class PacketMultipartServerPartAddition extends APacketMultipartPart{
 								
 								//All clear for adding a new part.  Do so now and tell all clients.
 								try{
-									Class<? extends APart> partClass = PackParserSystem.getPartPartClass(partItem.partName);
-									Constructor<? extends APart> construct = partClass.getConstructor(EntityMultipartD_Moving.class, PackPart.class, String.class, NBTTagCompound.class);
-									APart newPart = construct.newInstance((EntityMultipartD_Moving) multipart, packPart, partItem.partName, heldStack.hasTagCompound() ? heldStack.getTagCompound() : new NBTTagCompound());
+									APart newPart = PackParserSystem.createPart((EntityMultipartD_Moving) multipart, packPart, partItem.partName, heldStack.hasTagCompound() ? heldStack.getTagCompound() : new NBTTagCompound());
 									multipart.addPart(newPart, false);
 									MTS.MTSNet.sendToAll(new PacketMultipartClientPartAddition(multipart, message.offsetX, message.offsetY, message.offsetZ, heldStack));
 									if(!player.capabilities.isCreativeMode){
@@ -1,7 +1,7 @@
 package minecrafttransportsimulator.packets.multipart;
 
 import minecrafttransportsimulator.multipart.main.EntityMultipartB_Existing;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -17,7 +17,7 @@ public class PacketMultipartWindowBreak extends APacketMultipart{
 	public static class Handler implements IMessageHandler<PacketMultipartWindowBreak, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartWindowBreak message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartB_Existing multipart = (EntityMultipartB_Existing) getMultipart(message, ctx);
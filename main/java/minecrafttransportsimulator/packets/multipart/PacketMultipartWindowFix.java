@@ -2,11 +2,11 @@ package minecrafttransportsimulator.packets.multipart;
 
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.main.EntityMultipartB_Existing;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.init.Blocks;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -22,7 +22,7 @@ public class PacketMultipartWindowFix extends APacketMultipartPlayer{
 	public static class Handler implements IMessageHandler<PacketMultipartWindowFix, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketMultipartWindowFix message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					EntityMultipartB_Existing multipart = (EntityMultipartB_Existing) getMultipart(message, ctx);
@@ -2,13 +2,26 @@ package minecrafttransportsimulator.packets.parts;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import minecrafttransportsimulator.multipart.main.EntityMultipartB_Existing;
 import minecrafttransportsimulator.multipart.parts.APart;
+import minecrafttransportsimulator.packets.MTSNetworkWrapper.SlotIndexedPacket;
 import net.minecraft.client.Minecraft;
+import net.minecraft.util.math.Vec3d;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
 
-public abstract class APacketPart implements IMessage{
+/**Base packet for packets sent to a part.  Parts are found by the index of the pack slot they are in
+ * when possible, and by their full offset when they aren't in a slot or the player on the other end
+ * has a different slot table for the multipart's pack.
+ * 
+ * @author don_bruce
+ */
+public abstract class APacketPart implements IMessage, SlotIndexedPacket{
 	private int id;
+	private int slotIndex;
+	private String multipartName;
+	private boolean slotIndexDisabled;
 	private double x;
 	private double y;
 	private double z;
@@ -17,6 +30,8 @@ public abstract class APacketPart implements IMessage{
 	
 	public APacketPart(APart part){
 		this.id = part.multipart.getEntityId();
+		this.slotIndex = part.multipart.getSlotIndexForPacket(part.offset.xCoord, part.offset.yCoord, part.offset.zCoord);
+		this.multipartName = part.multipart.multipartName;
 		this.x = part.offset.xCoord;
 		this.y = part.offset.yCoord;
 		this.z = part.offset.zCoord;
@@ -25,17 +40,34 @@ public abstract class APacketPart implements IMessage{
 	@Override
 	public void fromBytes(ByteBuf buf){
 		this.id = buf.readInt();
-		this.x = buf.readDouble();
-		this.y = buf.readDouble();
-		this.z = buf.readDouble();
+		this.slotIndex = ByteBufUtils.readVarInt(buf, 5) - 1;
+		if(slotIndex == -1){
+			this.x = buf.readDouble();
+			this.y = buf.readDouble();
+			this.z = buf.readDouble();
+		}
 	}
 
 	@Override
 	public void toBytes(ByteBuf buf){
 		buf.writeInt(this.id);
-		buf.writeDouble(this.x);
-		buf.writeDouble(this.y);
-		buf.writeDouble(this.z);
+		int sentSlotIndex = slotIndexDisabled ? -1 : slotIndex;
+		ByteBufUtils.writeVarInt(buf, sentSlotIndex + 1, 5);
+		if(sentSlotIndex == -1){
+			buf.writeDouble(this.x);
+			buf.writeDouble(this.y);
+			buf.writeDouble(this.z);
+		}
+	}
+	
+	@Override
+	public String getSlotTablePackName(){
+		return slotIndex != -1 ? multipartName : null;
+	}
+	
+	@Override
+	public void setSlotIndexDisabled(boolean disabled){
+		this.slotIndexDisabled = disabled;
 	}
 	
 	protected static APart getMultipartPartFromMessage(APacketPart message, MessageContext ctx){
@@ -45,11 +77,16 @@ public abstract class APacketPart implements IMessage{
 		}else{
 			multipart = (EntityMultipartA_Base) Minecraft.getMinecraft().theWorld.getEntityByID(message.id);
 		}
+		if(multipart instanceof EntityMultipartB_Existing){
+			//Anything sent to a part may change the multipart, so make sure it's awake.
+			((EntityMultipartB_Existing) multipart).wakeUp();
+		}
 		if(multipart != null){
-			for(APart part : multipart.getMultipartParts()){
-				if(part.offset.xCoord == message.x && part.offset.yCoord == message.y && part.offset.zCoord == message.z){
-					return part;
-				}
+			if(message.slotIndex != -1){
+				Vec3d slotPos = multipart.getSlotPositionFromPacket(message.slotIndex);
+				return slotPos != null ? multipart.getPartAtLocation(slotPos.xCoord, slotPos.yCoord, slotPos.zCoord) : null;
+			}else{
+				return multipart.getPartAtLocation(message.x, message.y, message.z);
 			}
 		}
 		return null;
@@ -2,7 +2,7 @@ package minecrafttransportsimulator.packets.parts;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.parts.APartEngine;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -43,7 +43,7 @@ public class PacketPartEngineDamage extends APacketPart{
 
 	public static class Handler implements IMessageHandler<PacketPartEngineDamage, IMessage>{
 		public IMessage onMessage(final PacketPartEngineDamage message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					APartEngine engine = (APartEngine) getMultipartPartFromMessage(message, ctx);
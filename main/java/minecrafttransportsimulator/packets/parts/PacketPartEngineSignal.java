@@ -3,7 +3,7 @@ package minecrafttransportsimulator.packets.parts;
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.multipart.parts.APartEngine;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -32,7 +32,7 @@ public class PacketPartEngineSignal extends APacketPart{
 
 	public static class Handler implements IMessageHandler<PacketPartEngineSignal, IMessage>{
 		public IMessage onMessage(final PacketPartEngineSignal message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					APartEngine engine = (APartEngine) getMultipartPartFromMessage(message, ctx);
@@ -2,7 +2,7 @@ package minecrafttransportsimulator.packets.parts;
 
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartGroundDevice;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -17,7 +17,7 @@ public final class PacketPartGroundDeviceFlat extends APacketPart{
 	public static class Handler implements IMessageHandler<PacketPartGroundDeviceFlat, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketPartGroundDeviceFlat message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					PartGroundDevice grounder = (PartGroundDevice) getMultipartPartFromMessage(message, ctx);
@@ -2,8 +2,8 @@ package minecrafttransportsimulator.packets.parts;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.parts.APart;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -33,7 +33,7 @@ public class PacketPartInteraction extends APacketPart{
 	public static class Handler implements IMessageHandler<PacketPartInteraction, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketPartInteraction message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					APart part = getMultipartPartFromMessage(message, ctx);
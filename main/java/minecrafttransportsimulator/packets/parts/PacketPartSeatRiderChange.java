@@ -3,9 +3,9 @@ package minecrafttransportsimulator.packets.parts;
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.multipart.parts.APart;
 import minecrafttransportsimulator.multipart.parts.PartSeat;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.Entity;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -39,7 +39,7 @@ public class PacketPartSeatRiderChange extends APacketPart{
 	public static class Handler implements IMessageHandler<PacketPartSeatRiderChange, IMessage>{
 		@Override
 		public IMessage onMessage(final PacketPartSeatRiderChange message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					Entity rider = Minecraft.getMinecraft().theWorld.getEntityByID(message.rider);
@@ -3,8 +3,8 @@ package minecrafttransportsimulator.packets.tileentities;
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.blocks.core.TileEntityFuelPump;
 import minecrafttransportsimulator.multipart.main.EntityMultipartE_Vehicle;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.client.Minecraft;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
 import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
@@ -41,7 +41,7 @@ public class PacketFuelPumpConnection extends APacketTileEntity{
 
 	public static class Handler implements IMessageHandler<PacketFuelPumpConnection, IMessage>{
 		public IMessage onMessage(final PacketFuelPumpConnection message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					TileEntityFuelPump pump = (TileEntityFuelPump) getTileEntity(message, ctx);
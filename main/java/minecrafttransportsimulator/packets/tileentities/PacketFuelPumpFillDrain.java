@@ -2,9 +2,9 @@ package minecrafttransportsimulator.packets.tileentities;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.blocks.core.TileEntityFuelPump;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraftforge.fluids.FluidStack;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
@@ -34,7 +34,7 @@ public class PacketFuelPumpFillDrain extends APacketTileEntity{
 
 	public static class Handler implements IMessageHandler<PacketFuelPumpFillDrain, IMessage>{
 		public IMessage onMessage(final PacketFuelPumpFillDrain message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					TileEntityFuelPump pump = (TileEntityFuelPump) getTileEntity(message, ctx);
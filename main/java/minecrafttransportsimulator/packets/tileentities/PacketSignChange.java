@@ -7,7 +7,7 @@ import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.MTS;
 import minecrafttransportsimulator.blocks.decor.TileEntityDecor6AxisSign;
 import minecrafttransportsimulator.systems.PackParserSystem;
-import net.minecraftforge.fml.common.FMLCommonHandler;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
@@ -49,7 +49,7 @@ public class PacketSignChange extends APacketTileEntity{
 
 	public static class Handler implements IMessageHandler<PacketSignChange, IMessage>{
 		public IMessage onMessage(final PacketSignChange message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					TileEntityDecor6AxisSign decor = (TileEntityDecor6AxisSign) getTileEntity(message, ctx);
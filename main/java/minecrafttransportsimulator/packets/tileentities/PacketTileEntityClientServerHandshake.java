@@ -2,10 +2,10 @@ package minecrafttransportsimulator.packets.tileentities;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.MTS;
+import minecrafttransportsimulator.systems.PacketQueueSystem;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
-import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
@@ -35,7 +35,7 @@ public class PacketTileEntityClientServerHandshake extends APacketTileEntity{
 
 	public static class Handler implements IMessageHandler<PacketTileEntityClientServerHandshake, IMessage>{
 		public IMessage onMessage(final PacketTileEntityClientServerHandshake message, final MessageContext ctx){
-			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+			PacketQueueSystem.schedule(ctx, new Runnable(){
 				@Override
 				public void run(){
 					TileEntity tile = getTileEntity(message, ctx);
@@ -30,7 +30,6 @@ import minecrafttransportsimulator.systems.ClientEventSystem;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.OBJParserSystem;
 import minecrafttransportsimulator.systems.PackParserSystem;
-import minecrafttransportsimulator.systems.RotationSystem;
 import minecrafttransportsimulator.systems.SFXSystem;
 import minecrafttransportsimulator.systems.SFXSystem.FXPart;
 import net.minecraft.client.Minecraft;
@@ -795,7 +794,7 @@ public final class RenderMultipart extends Render<EntityMultipartD_Moving>{
 					}
 							
 					if(!isPresent && isHoldingPart){
-						Vec3d offset = RotationSystem.getRotatedPoint(packPartEntry.getKey(), multipart.rotationPitch, multipart.rotationYaw, multipart.rotationRoll);
+						Vec3d offset = multipart.getRotationMatrix().rotate(packPartEntry.getKey());
 						AxisAlignedBB box = new AxisAlignedBB((float) (offset.xCoord) - 0.5F, (float) (offset.yCoord) - 0.5F, (float) (offset.zCoord) - 0.5F, (float) (offset.xCoord) + 0.5F, (float) (offset.yCoord) + 1.25F, (float) (offset.zCoord) + 0.5F);
 						
 						GL11.glPushMatrix();
@@ -126,7 +126,7 @@ public final class ClientEventSystem{
         				Vec3d clickedVec = player.getPositionVector().addVector(0, entity.getEyeHeight(), 0);
 			    		for(float f=1.0F; f<4.0F; f += 0.1F){
 			    			for(Entry<Vec3d, PackPart> packPartEntry : multipart.getAllPossiblePackParts().entrySet()){
-		    					Vec3d offset = RotationSystem.getRotatedPoint(packPartEntry.getKey().addVector(0, 0.25F, 0), multipart.rotationPitch, multipart.rotationYaw, multipart.rotationRoll);
+		    					Vec3d offset = multipart.getRotationMatrix().rotate(packPartEntry.getKey().addVector(0, 0.25F, 0));
 		    					MultipartAxisAlignedBB partBox = new MultipartAxisAlignedBB(multipart.getPositionVector().add(offset), packPartEntry.getKey().addVector(0, 0.5F, 0), 1.0F, 1.75F, false);
 		    					
 		    					if(partBox.isVecInside(clickedVec)){
@@ -1,9 +1,13 @@
 package minecrafttransportsimulator.systems;
 
 import java.io.File;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
+import net.minecraft.item.Item;
 import net.minecraftforge.common.config.ConfigCategory;
 import net.minecraftforge.common.config.Configuration;
 import net.minecraftforge.fluids.FluidRegistry;
@@ -23,18 +27,36 @@ public final class ConfigSystem{
 	protected static Map<String, String> stringConfigMap = new HashMap<String, String>();
 
 	private static Map<String, Double> fluidValues = new HashMap<String, Double>();
+	/**Items that match the HeavyItems config.  Compiled from the item registry on first use, and cleared when the config changes.*/
+	private static Set<Item> heavyItems;
 	private static final String COMMON_CONFIG = "general";
 	private static final String DAMAGE_CONFIG = "damage";
 	private static final String CLIENT_CONFIG = "clientconfig";
 	private static final String FUEL_CONFIG = "fuels";
 	
 	public static void initCommon(File configFile){
+		heavyItems = null;
 		config = new Configuration(configFile);
 		config.load();
 		
 		doubleConfigMap.put("SpeedFactor", config.get(COMMON_CONFIG, "SpeedFactor", 0.35D, "Factor to apply to vehicle movement.  \n1 is the realistic value, but this makes vehicles move too fast for Minecraft. Adjust with caution.").getDouble());
 		doubleConfigMap.put("FuelUsageFactor", config.get(COMMON_CONFIG, "FuelUsageFactor", 1.0D, "Factor times which engines use fuel.  \nChange this if you think engines use fuel too fast or slow.").getDouble());
 		doubleConfigMap.put("ClingSpeed", config.get(COMMON_CONFIG, "ClingSpeed", 0.25D, "Speed (in BLK/S) at which players start to slide off vehicles due to wind.  \nDoes not affect collision boxes set as interior in the vehicle JSON.").getDouble());
+		booleanConfigMap.put("IncrementalCollisionBoxes", config.get(COMMON_CONFIG, "IncrementalCollisionBoxes", true, "If true, vehicle collision boxes are only re-built when the vehicle rotates or its parts change.  \nBoxes are moved rather than re-built if only the position changes.  Set to false to re-build every tick.").getBoolean());
+		integerConfigMap.put("SleepDelay", config.get(COMMON_CONFIG, "SleepDelay", 100, "How long (in ticks) a vehicle has to sit still with no riders and everything off before it goes to sleep.  \nSleeping vehicles skip all updates until something touches them or a block near them changes.  Set to 0 to disable.", 0, Short.MAX_VALUE).getInt());
+		integerConfigMap.put("CarViewDistance", config.get(COMMON_CONFIG, "CarViewDistance", 80, "How far away (in blocks) players can see and get updates for cars.  \nLower values save bandwidth on busy servers.  Requires a restart to take effect.", 16, 512).getInt());
+		integerConfigMap.put("PlaneViewDistance", config.get(COMMON_CONFIG, "PlaneViewDistance", 80, "How far away (in blocks) players can see and get updates for planes.  \nLower values save bandwidth on busy servers.  Requires a restart to take effect.", 16, 512).getInt());
+		integerConfigMap.put("DeltaPositionBits", config.get(COMMON_CONFIG, "DeltaPositionBits", 12, "Precision of vehicle movement sent to clients, as bits after the decimal point.  \n12 gives steps of 1/4096 of a block.  Lower values save bandwidth but make vehicles on clients less accurate.", 4, 15).getInt());
+		integerConfigMap.put("DeltaRotationBits", config.get(COMMON_CONFIG, "DeltaRotationBits", 10, "Precision of vehicle rotation sent to clients, as bits after the decimal point.  \n10 gives steps of 1/1024 of a degree.", 4, 15).getInt());
+		integerConfigMap.put("ClientInitBytesPerTick", config.get(COMMON_CONFIG, "ClientInitBytesPerTick", 16384, "Max bytes of vehicle data sent to each player per tick when they first see vehicles.  \nVehicles past this wait for the next tick, so players joining near lots of vehicles don't get them all at once.  \nAt least one vehicle is always sent each tick.", 1024, Integer.MAX_VALUE).getInt());
+		integerConfigMap.put("DeltaKeyframeInterval", config.get(COMMON_CONFIG, "DeltaKeyframeInterval", 20, "Max ticks between vehicle movement updates sent to clients.  \nUpdates are only sent when clients' predictions are off, but one is always sent after this many ticks.  Set to 1 to send every tick.", 1, 100).getInt());
+		doubleConfigMap.put("DeltaPositionThreshold", config.get(COMMON_CONFIG, "DeltaPositionThreshold", 0.05D, "How far (in blocks) clients' predicted vehicle positions can be off before an update is sent.").getDouble());
+		doubleConfigMap.put("DeltaAngleThreshold", config.get(COMMON_CONFIG, "DeltaAngleThreshold", 0.5D, "How far (in degrees) clients' predicted vehicle angles can be off before an update is sent.").getDouble());
+		integerConfigMap.put("SimulationNearRadius", config.get(COMMON_CONFIG, "SimulationNearRadius", 80, "Vehicles with a player this close (in blocks) are simulated every tick.  \nVehicles with no player this close and no riders are frozen until a player comes near.  Defaults to the vehicle tracking range, so vehicles players can see are always simulated.", 0, Short.MAX_VALUE).getInt());
+		integerConfigMap.put("ControlStateInterval", config.get(COMMON_CONFIG, "ControlStateInterval", 2, "How many ticks apart vehicles send their control states (throttle, brakes, control surfaces, etc.) to clients.  \nOnly controls that changed since the last send are sent.  Lower values make other players' controls look smoother at the cost of bandwidth.", 1, 20).getInt());
+		booleanConfigMap.put("BulkPacketDispatch", config.get(COMMON_CONFIG, "BulkPacketDispatch", true, "If true, packets are queued and handled all at once at the start of each tick, and packets that set the same control on the same vehicle only get handled once.  \nSet to false to have each packet handled on its own.").getBoolean());
+		booleanConfigMap.put("NetworkProfiler", config.get(COMMON_CONFIG, "NetworkProfiler", false, "If true, messages, bytes, and handler time are counted for each MTS packet type.  \nView them with the /mtsnet command.  Can also be turned on and off with that command.").getBoolean());
+		integerConfigMap.put("NetworkProfilerDumpInterval", config.get(COMMON_CONFIG, "NetworkProfilerDumpInterval", 1200, "How many ticks apart network profiler stats are written to mts_network_profile.csv in the server folder.  \nOnly used if NetworkProfiler is true.  Set to 0 to only write them with the /mtsnet command.", 0, Integer.MAX_VALUE).getInt());
 		stringConfigMap.put("HeavyItems", config.get(COMMON_CONFIG, "HeavyItems", "diamond, iron, gold, coal, ore, stone", "Any item that contains these words will be counted as heavy (double mass) when considering plane mass.  \nChange and tweak to your liking.").getString());
 		
 		
@@ -62,6 +84,8 @@ public final class ConfigSystem{
 		booleanConfigMap.put("InnerWindows", config.get(CLIENT_CONFIG, "InnerWindows", true, "Render the insides of windows on vehicles?").getBoolean());
 		booleanConfigMap.put("KeyboardOverride", config.get(CLIENT_CONFIG, "KeyboardOverride", true, "Should keyboard controls be overriden when a joystick control is mapped?  \nLeave true to free up the keyboard while using a joysick.").getBoolean());
 		integerConfigMap.put("ControlSurfaceCooldown", config.get(CLIENT_CONFIG, "ControlSurfaceCooldown", 4, "How long (in ticks) it takes before control surfaces try to return to their natural angle.  \nThis is not used when using a joystick.", 0, Short.MAX_VALUE).getInt());
+		integerConfigMap.put("InterpolationDelay", config.get(CLIENT_CONFIG, "InterpolationDelay", 2, "How many ticks behind the server vehicles are shown.  \nHigher values hide more network jitter, but make vehicles lag further behind where they really are.", 0, 20).getInt());
+		integerConfigMap.put("MaxExtrapolationTicks", config.get(CLIENT_CONFIG, "MaxExtrapolationTicks", 30, "If vehicle updates from the server are late, how many ticks vehicles keep moving on their last known path before stopping to wait for them.  \nServers only send updates when vehicles stray from their path, so this should be more than the server's DeltaKeyframeInterval.", 0, 100).getInt());
 		doubleConfigMap.put("JoystickDeadZone", config.get(CLIENT_CONFIG, "JoystickDeadZone", 0.03D, "Dead zone for joystick axis.  NOT joystick specific.").getDouble());
 		config.save();
 	}
@@ -86,6 +110,25 @@ public final class ConfigSystem{
 		return stringConfigMap.get(configName);
 	}
 	
+	/**
+	 * Returns true if the passed-in item is a heavy item as defined by the HeavyItems config.
+	 * The config string is only searched once per item type, so this is safe to call on every stack.
+	 */
+	public static boolean isHeavyItem(Item item){
+		if(heavyItems == null){
+			String heavyItemsConfig = getStringConfig("HeavyItems");
+			Set<Item> newHeavyItems = Collections.newSetFromMap(new IdentityHashMap<Item, Boolean>());
+			for(Item registeredItem : Item.REGISTRY){
+				String itemName = registeredItem.getUnlocalizedName();
+				if(itemName.length() > 5 && heavyItemsConfig.contains(itemName.substring(5))){
+					newHeavyItems.add(registeredItem);
+				}
+			}
+			heavyItems = newHeavyItems;
+		}
+		return heavyItems.contains(item);
+	}
+	
 	public static void setCommonConfig(String configName, Object value){
 		setConfig(configName, String.valueOf(value), COMMON_CONFIG);
 	}
@@ -105,6 +148,7 @@ public final class ConfigSystem{
 				doubleConfigMap.put(configName, Double.valueOf(value));
 			}else if(stringConfigMap.containsKey(configName)){
 				stringConfigMap.put(configName, value);
+				heavyItems = null;
 			}else{
 				return;
 			}
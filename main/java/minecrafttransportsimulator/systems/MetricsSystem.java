@@ -0,0 +1,98 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.relauncher.Side;
+
+/**Class responsible for keeping performance counters.  Systems add to counters as they
+ * do work, and the counters are rolled over at the end of every tick.  This allows
+ * querying how much work was done in the last full tick, as well as the total since startup.
+ * Counters are created the first time they are added to, so there's no need to register them.
+ * Servers and clients each have their own counters, picked by the side of the thread doing the adding,
+ * so a singleplayer game doesn't mix the two.  Counters can be viewed with the mtsmetrics command.
+ *
+ * @author don_bruce
+ */
+@Mod.EventBusSubscriber
+public final class MetricsSystem{
+	private static final Map<String, Counter> serverCounters = new LinkedHashMap<String, Counter>();
+	private static final Map<String, Counter> clientCounters = new LinkedHashMap<String, Counter>();
+
+	/**
+	 * Adds one to the passed-in counter.
+	 */
+	public static void increment(String counterName){
+		add(counterName, 1);
+	}
+
+	/**
+	 * Adds the passed-in amount to the passed-in counter.
+	 */
+	public static synchronized void add(String counterName, long amount){
+		Map<String, Counter> counters = getCounters(FMLCommonHandler.instance().getEffectiveSide());
+		Counter counter = counters.get(counterName);
+		if(counter == null){
+			counter = new Counter();
+			counters.put(counterName, counter);
+		}
+		counter.currentTick += amount;
+		counter.total += amount;
+	}
+
+	/**
+	 * Returns a line for each counter on the passed-in side, with its value for the last full tick and since startup.
+	 */
+	public static synchronized List<String> getSummary(Side side){
+		List<String> lines = new ArrayList<String>();
+		for(Entry<String, Counter> counterEntry : getCounters(side).entrySet()){
+			lines.add(String.format("%s: %d last tick, %d total", counterEntry.getKey(), counterEntry.getValue().lastTick, counterEntry.getValue().total));
+		}
+		return lines;
+	}
+
+	private static Map<String, Counter> getCounters(Side side){
+		return side.isServer() ? serverCounters : clientCounters;
+	}
+
+	/**
+	 * Rolls the server counters over at the end of each server tick.
+	 */
+	@SubscribeEvent
+	public static void on(TickEvent.ServerTickEvent event){
+		if(event.phase.equals(Phase.END)){
+			rollOver(serverCounters);
+		}
+	}
+
+	/**
+	 * Rolls the client counters over at the end of each client tick.
+	 */
+	@SubscribeEvent
+	public static void on(TickEvent.ClientTickEvent event){
+		if(event.phase.equals(Phase.END)){
+			rollOver(clientCounters);
+		}
+	}
+
+	private static synchronized void rollOver(Map<String, Counter> counters){
+		for(Counter counter : counters.values()){
+			counter.lastTick = counter.currentTick;
+			counter.currentTick = 0;
+		}
+	}
+
+	private static class Counter{
+		private long currentTick;
+		private long lastTick;
+		private long total;
+	}
+}
@@ -0,0 +1,174 @@
+package minecrafttransportsimulator.systems;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import minecrafttransportsimulator.MTS;
+import net.minecraft.server.MinecraftServer;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**Class that keeps track of how many messages and bytes each packet class sends and receives, and how long
+ * handlers take to deal with them.  Sending is tracked by the {@link minecrafttransportsimulator.packets.MTSNetworkWrapper},
+ * so every packet is counted no matter where it's sent from.  Stats are split by direction, so the
+ * same packet sent both ways shows up twice.  Nothing is tracked unless the NetworkProfiler config is set,
+ * in which case the only cost is the config check.  Stats can be viewed with the mtsnet command,
+ * and are written to a CSV file every so often if set in the config.
+ *
+ * @author don_bruce
+ */
+@Mod.EventBusSubscriber
+public final class NetworkProfilerSystem{
+	private static final String CSV_FILE_NAME = "mts_network_profile.csv";
+	private static final Map<String, PacketStats> stats = new LinkedHashMap<String, PacketStats>();
+	/**Buffer used to find the size of messages.  Only used while holding the lock, so no need to make more.*/
+	private static final ByteBuf sizeBuffer = Unpooled.buffer();
+	/**Last message sized and its size.  Messages sent to many players are only sized once this way.*/
+	private static IMessage lastSizedMessage;
+	private static int lastMessageSize;
+	private static int ticksSinceDump;
+
+	public static boolean isEnabled(){
+		return ConfigSystem.getBooleanConfig("NetworkProfiler");
+	}
+
+	/**
+	 * Records a message being sent to the passed-in number of receivers.
+	 */
+	public static synchronized void recordSent(IMessage message, boolean toServer, int receivers){
+		PacketStats packetStats = getStats(message, toServer);
+		packetStats.messagesSent += receivers;
+		packetStats.bytesSent += (long) getMessageSize(message)*receivers;
+	}
+
+	/**
+	 * Records a message of the passed-in size being received and how long its handler took.
+	 */
+	public static synchronized void recordReceived(IMessage message, boolean toServer, int messageSize, long handlerNanos){
+		PacketStats packetStats = getStats(message, toServer);
+		++packetStats.messagesReceived;
+		packetStats.bytesReceived += messageSize;
+		packetStats.handlerNanos += handlerNanos;
+	}
+
+	public static synchronized void reset(){
+		stats.clear();
+	}
+
+	/**
+	 * Returns a line for each packet class and direction, sorted with the most bytes first.
+	 */
+	public static synchronized List<String> getSummary(){
+		List<PacketStats> sortedStats = new ArrayList<PacketStats>(stats.values());
+		Collections.sort(sortedStats, new Comparator<PacketStats>(){
+			@Override
+			public int compare(PacketStats stats1, PacketStats stats2){
+				return Long.compare(stats2.bytesSent + stats2.bytesReceived, stats1.bytesSent + stats1.bytesReceived);
+			}
+		});
+		List<String> lines = new ArrayList<String>();
+		for(PacketStats packetStats : sortedStats){
+			lines.add(String.format("%s %s: sent %d (%d B), received %d (%d B), handlers %.2f ms", packetStats.packetName, packetStats.direction, packetStats.messagesSent, packetStats.bytesSent, packetStats.messagesReceived, packetStats.bytesReceived, packetStats.handlerNanos/1000000D));
+		}
+		return lines;
+	}
+
+	/**
+	 * Appends the current stats to the CSV file in the server directory and returns the file.
+	 * Each row has the world time, so dumps made at intervals can be told apart.
+	 */
+	public static synchronized File dumpToCSV(){
+		MinecraftServer server = FMLCommonHandler.instance().getMinecraftServerInstance();
+		File csvFile = server.getFile(CSV_FILE_NAME);
+		boolean writeHeader = !csvFile.exists();
+		long worldTime = server.worldServers.length > 0 ? server.worldServers[0].getTotalWorldTime() : 0;
+		FileWriter writer = null;
+		try{
+			writer = new FileWriter(csvFile, true);
+			if(writeHeader){
+				writer.write("worldTime,packet,direction,messagesSent,bytesSent,messagesReceived,bytesReceived,handlerNanos\n");
+			}
+			for(PacketStats packetStats : stats.values()){
+				writer.write(worldTime + "," + packetStats.packetName + "," + packetStats.direction + "," + packetStats.messagesSent + "," + packetStats.bytesSent + "," + packetStats.messagesReceived + "," + packetStats.bytesReceived + "," + packetStats.handlerNanos + "\n");
+			}
+		}catch(IOException e){
+			MTS.MTSLog.error("ERROR WRITING NETWORK PROFILE TO " + csvFile.getAbsolutePath());
+			e.printStackTrace();
+		}finally{
+			if(writer != null){
+				try{
+					writer.close();
+				}catch(IOException e){}
+			}
+		}
+		return csvFile;
+	}
+
+	/**
+	 * Dumps stats to the CSV file at the interval set in the config.
+	 */
+	@SubscribeEvent
+	public static void on(TickEvent.ServerTickEvent event){
+		if(event.phase.equals(Phase.END) && isEnabled()){
+			int dumpInterval = ConfigSystem.getIntegerConfig("NetworkProfilerDumpInterval");
+			if(dumpInterval > 0 && ++ticksSinceDump >= dumpInterval){
+				ticksSinceDump = 0;
+				dumpToCSV();
+			}
+		}
+	}
+
+	private static PacketStats getStats(IMessage message, boolean toServer){
+		String key = message.getClass().getName() + (toServer ? "S" : "C");
+		PacketStats packetStats = stats.get(key);
+		if(packetStats == null){
+			packetStats = new PacketStats(message.getClass().getSimpleName(), toServer ? "toServer" : "toClient");
+			stats.put(key, packetStats);
+		}
+		return packetStats;
+	}
+
+	/**
+	 * Returns the size of the passed-in message in bytes, not counting the channel header.  Received messages should
+	 * be measured before they are handled, as handlers may change them once they are on the main thread.
+	 * Asking for the same message again returns the size from last time without serializing it again,
+	 * so don't change messages after they've been sized.
+	 */
+	public static synchronized int getMessageSize(IMessage message){
+		if(message != lastSizedMessage){
+			sizeBuffer.clear();
+			message.toBytes(sizeBuffer);
+			lastSizedMessage = message;
+			lastMessageSize = sizeBuffer.readableBytes();
+		}
+		return lastMessageSize;
+	}
+
+	private static class PacketStats{
+		private final String packetName;
+		private final String direction;
+		private long messagesSent;
+		private long bytesSent;
+		private long messagesReceived;
+		private long bytesReceived;
+		private long handlerNanos;
+
+		private PacketStats(String packetName, String direction){
+			this.packetName = packetName;
+			this.direction = direction;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.UUID;
+
+import minecrafttransportsimulator.MTS;
+import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import minecrafttransportsimulator.multipart.main.EntityMultipartD_Moving;
+import minecrafttransportsimulator.packets.multipart.PacketMultipartClientInitResponse;
+import minecrafttransportsimulator.packets.multipart.PacketMultipartDeltaBundle;
+import minecrafttransportsimulator.packets.multipart.PacketMultipartDeltas;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.world.WorldServer;
+import net.minecraftforge.event.world.WorldEvent;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.PlayerEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+
+/**Class responsible for sending packets about entities to only the players that can see them.
+ * Rather than sending to all players on the server, packets are sent to the players that are
+ * tracking the entity, which are the players that have it loaded on their clients.
+ * Bytes sent and bytes saved over sending to everyone are kept in the {@link MetricsSystem}, but only
+ * while the {@link NetworkProfilerSystem} is enabled, as finding them means serializing each message.
+ * Delta packets are not sent right away, but are queued and sent to each player as one bundle
+ * at the end of the server tick.  Client init responses are queued too, and are sent a few at a time
+ * so players that see lots of multiparts at once get them over a few ticks rather than all at once.
+ *
+ * @author don_bruce
+ */
+@Mod.EventBusSubscriber
+public final class NetworkSystem{
+	/**Delta packets queued for each player this tick.*/
+	private static final Map<EntityPlayerMP, List<PacketMultipartDeltas>> queuedDeltas = new LinkedHashMap<EntityPlayerMP, List<PacketMultipartDeltas>>();
+	
+	/**Multiparts each player is waiting on init responses for, in the order they were asked for.*/
+	private static final Map<EntityPlayerMP, List<EntityMultipartA_Base>> queuedInits = new LinkedHashMap<EntityPlayerMP, List<EntityMultipartA_Base>>();
+	
+	/**Multipart packs each player's slot table doesn't match ours for, by player ID.  Packets about parts on these packs
+	 * are sent to that player with offsets rather than slot indexes.  Players are removed when they log out.*/
+	private static final Map<UUID, Set<String>> slotTableMismatches = new HashMap<UUID, Set<String>>();
+
+	/**
+	 * Sends the passed-in message to all players tracking the passed-in entity.
+	 * Must only be called on the server.
+	 */
+	public static void sendToTrackers(IMessage message, Entity entity){
+		int trackers = 0;
+		for(EntityPlayer player : ((WorldServer) entity.worldObj).getEntityTracker().getTrackingPlayers(entity)){
+			MTS.MTSNet.sendTo(message, (EntityPlayerMP) player);
+			++trackers;
+		}
+
+		if(NetworkProfilerSystem.isEnabled()){
+			int messageSize = NetworkProfilerSystem.getMessageSize(message);
+			int totalPlayers = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getCurrentPlayerCount();
+			String messageName = message.getClass().getSimpleName();
+			MetricsSystem.add(messageName + "BytesSent", messageSize*trackers);
+			MetricsSystem.add(messageName + "BytesSaved", messageSize*(totalPlayers - trackers));
+		}
+	}
+
+	/**
+	 * Queues the passed-in deltas for all players tracking the passed-in entity.
+	 * They will be sent at the end of this tick.  Must only be called on the server.
+	 */
+	public static void queueDeltasToTrackers(PacketMultipartDeltas deltas, Entity entity){
+		int trackers = 0;
+		for(EntityPlayer player : ((WorldServer) entity.worldObj).getEntityTracker().getTrackingPlayers(entity)){
+			List<PacketMultipartDeltas> playerDeltas = queuedDeltas.get(player);
+			if(playerDeltas == null){
+				playerDeltas = new ArrayList<PacketMultipartDeltas>();
+				queuedDeltas.put((EntityPlayerMP) player, playerDeltas);
+			}
+			playerDeltas.add(deltas);
+			++trackers;
+		}
+		if(NetworkProfilerSystem.isEnabled()){
+			int totalPlayers = FMLCommonHandler.instance().getMinecraftServerInstance().getPlayerList().getCurrentPlayerCount();
+			MetricsSystem.add(deltas.getClass().getSimpleName() + "BytesSaved", NetworkProfilerSystem.getMessageSize(deltas)*(totalPlayers - trackers));
+		}
+	}
+	
+	/**
+	 * Records that the passed-in player's slot table for the passed-in multipart pack doesn't match ours.
+	 */
+	public static void addSlotTableMismatch(EntityPlayerMP player, String multipartName){
+		Set<String> playerMismatches = slotTableMismatches.get(player.getUniqueID());
+		if(playerMismatches == null){
+			playerMismatches = new HashSet<String>();
+			slotTableMismatches.put(player.getUniqueID(), playerMismatches);
+		}
+		playerMismatches.add(multipartName);
+	}
+	
+	/**
+	 * Returns true if the passed-in player's slot table for the passed-in multipart pack doesn't match ours.
+	 */
+	public static boolean hasSlotTableMismatch(EntityPlayerMP player, String multipartName){
+		Set<String> playerMismatches = slotTableMismatches.get(player.getUniqueID());
+		return playerMismatches != null && playerMismatches.contains(multipartName);
+	}
+	
+	/**
+	 * Returns true if any player's slot table for the passed-in multipart pack doesn't match ours.
+	 */
+	public static boolean hasSlotTableMismatches(String multipartName){
+		for(Set<String> playerMismatches : slotTableMismatches.values()){
+			if(playerMismatches.contains(multipartName)){
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@SubscribeEvent
+	public static void on(PlayerEvent.PlayerLoggedOutEvent event){
+		slotTableMismatches.remove(event.player.getUniqueID());
+	}
+	
+	@SubscribeEvent
+	public static void on(WorldEvent.Unload event){
+		if(event.getWorld().isRemote){
+			EntityMultipartA_Base.clearSlotTableMismatches();
+		}
+	}
+	
+	/**
+	 * Queues an init response for the passed-in multipart to be sent to the passed-in player.
+	 * Requests for multiparts that are already queued are ignored, as clients re-send them until they get a response.
+	 */
+	public static void queueClientInit(EntityMultipartA_Base multipart, EntityPlayerMP player){
+		List<EntityMultipartA_Base> playerInits = queuedInits.get(player);
+		if(playerInits == null){
+			playerInits = new ArrayList<EntityMultipartA_Base>();
+			queuedInits.put(player, playerInits);
+		}
+		if(!playerInits.contains(multipart)){
+			playerInits.add(multipart);
+		}
+	}
+	
+	/**
+	 * Sends all queued deltas at the end of the tick.  Players with only one delta get it on its own,
+	 * as a bundle of one would just add bytes.
+	 */
+	@SubscribeEvent
+	public static void on(TickEvent.ServerTickEvent event){
+		if(event.phase.equals(Phase.END) && !queuedDeltas.isEmpty()){
+			for(Entry<EntityPlayerMP, List<PacketMultipartDeltas>> playerEntry : queuedDeltas.entrySet()){
+				List<PacketMultipartDeltas> playerDeltas = playerEntry.getValue();
+				IMessage message = playerDeltas.size() == 1 ? playerDeltas.get(0) : new PacketMultipartDeltaBundle(playerDeltas);
+				MTS.MTSNet.sendTo(message, playerEntry.getKey());
+				if(NetworkProfilerSystem.isEnabled()){
+					MetricsSystem.add(message.getClass().getSimpleName() + "BytesSent", NetworkProfilerSystem.getMessageSize(message));
+				}
+				MetricsSystem.add("deltaPacketsSaved", playerDeltas.size() - 1);
+			}
+			queuedDeltas.clear();
+		}
+		if(event.phase.equals(Phase.END) && !queuedInits.isEmpty()){
+			sendQueuedInits();
+		}
+	}
+	
+	/**
+	 * Sends queued init responses to each player until that player's byte budget for this tick is used up.
+	 * At least one is always sent, so large multiparts still go out.  The response is made at send time
+	 * so it has the current state, and we ask for a delta keyframe so the client gets moving right away.
+	 */
+	private static void sendQueuedInits(){
+		int bytesPerTick = ConfigSystem.getIntegerConfig("ClientInitBytesPerTick");
+		Iterator<Entry<EntityPlayerMP, List<EntityMultipartA_Base>>> iterator = queuedInits.entrySet().iterator();
+		while(iterator.hasNext()){
+			Entry<EntityPlayerMP, List<EntityMultipartA_Base>> playerEntry = iterator.next();
+			EntityPlayerMP player = playerEntry.getKey();
+			List<EntityMultipartA_Base> playerInits = playerEntry.getValue();
+			int bytesSent = 0;
+			while(!player.isDead && !playerInits.isEmpty() && bytesSent < bytesPerTick){
+				EntityMultipartA_Base multipart = playerInits.remove(0);
+				if(!multipart.isDead && multipart.worldObj == player.worldObj){
+					PacketMultipartClientInitResponse packet = new PacketMultipartClientInitResponse(multipart, !hasSlotTableMismatch(player, multipart.multipartName));
+					MTS.MTSNet.sendTo(packet, player);
+					//The packet keeps the bytes it was sent with, so this doesn't write it again.
+					int packetSize = packet.getSize();
+					bytesSent += packetSize;
+					MetricsSystem.add(packet.getClass().getSimpleName() + "BytesSent", packetSize);
+					if(multipart instanceof EntityMultipartD_Moving){
+						((EntityMultipartD_Moving) multipart).requestDeltaKeyframe();
+					}
+				}
+			}
+			if(player.isDead || playerInits.isEmpty()){
+				iterator.remove();
+			}
+		}
+	}
+}
@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.google.gson.Gson;
 
@@ -16,7 +18,9 @@ import minecrafttransportsimulator.dataclasses.CreativeTabPack;
 import minecrafttransportsimulator.dataclasses.MTSRegistry;
 import minecrafttransportsimulator.dataclasses.PackInstrumentObject;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject;
+import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackPart;
 import minecrafttransportsimulator.dataclasses.PackMultipartObject.PackFileDefinitions;
+import minecrafttransportsimulator.dataclasses.PackMultipartSlotTable;
 import minecrafttransportsimulator.dataclasses.PackPartObject;
 import minecrafttransportsimulator.dataclasses.PackSignObject;
 import minecrafttransportsimulator.items.parts.AItemPart;
@@ -41,6 +45,7 @@ import minecrafttransportsimulator.multipart.parts.PartSeat;
 import net.minecraft.client.Minecraft;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.util.ResourceLocation;
 
 /**
@@ -53,12 +58,22 @@ public final class PackParserSystem{
 	/**Map that keys the unique name of a multipart to its pack.  Used for associating packs with saved multiparts.**/
     private static final Map<String, PackMultipartObject> multipartPackMap = new LinkedHashMap<String, PackMultipartObject>();
    
+    /**Map that keys multipart packs to their part slot tables.  Tables are built the first time they are requested.
+     * Concurrent as both the client and server thread request tables.**/
+    private static final ConcurrentMap<PackMultipartObject, PackMultipartSlotTable> multipartSlotTableMap = new ConcurrentHashMap<PackMultipartObject, PackMultipartSlotTable>();
+   
     /**Map that keys the unique name of a multipart to its JSON file name.**/
     private static final Map<String, String> multipartJSONMap = new HashMap<String, String>();
    
     /**Same function as the multipart map, just for parts.**/
     private static final Map<String, PackPartObject> partPackMap = new LinkedHashMap<String, PackPartObject>();
     
+    /**Maps part types to the factories that make them.**/
+    private static final Map<String, PartFactory> partTypeFactoryMap = new HashMap<String, PartFactory>();
+    
+    /**Maps the unique name of a part to the factory for its type.  Resolved when the part's pack is loaded.**/
+    private static final Map<String, PartFactory> partFactoryMap = new HashMap<String, PartFactory>();
+    
     /**Same function as the multipart map, just for instruments.**/
     private static final Map<String, PackInstrumentObject> partInstrumentMap = new LinkedHashMap<String, PackInstrumentObject>();
     
@@ -119,6 +134,7 @@ public final class PackParserSystem{
 	    	PackPartObject pack =  new Gson().fromJson(jsonReader, PackPartObject.class);
 	    	String partName = modID + ":" + jsonFileName;
 	    	partPackMap.put(partName, pack);
+	    	partFactoryMap.put(partName, getPartFactory(pack.general.type));
 	    	if(!MTSRegistry.packTabs.containsKey(modID)){
 				MTSRegistry.packTabs.put(modID, new CreativeTabPack(modID));
 			}
@@ -180,6 +196,8 @@ public final class PackParserSystem{
     
     //-----START OF RELOAD LOGIC-----
     public static void reloadPackData(){
+    	//Slot tables depend on part packs as well as multipart packs, so they all need re-building.
+    	multipartSlotTableMap.clear();
     	try{
 	    	//We need to shove the strings into a list to keep us from getting CMEs while iterating the map.
 	    	List<String> jsonFilesToReload = new ArrayList<String>();
@@ -244,6 +262,20 @@ public final class PackParserSystem{
     	return multipartJSONMap.get(name);
     }
     
+    /**Returns the part slot table for the passed-in pack.  Built on first request as it needs all part packs to be loaded.
+     * Both the client and server thread may ask for tables, so if they race the first table to be stored is used by both.**/
+    public static PackMultipartSlotTable getMultipartSlotTable(PackMultipartObject pack){
+    	PackMultipartSlotTable slotTable = multipartSlotTableMap.get(pack);
+    	if(slotTable == null){
+    		slotTable = new PackMultipartSlotTable(pack);
+    		PackMultipartSlotTable priorTable = multipartSlotTableMap.putIfAbsent(pack, slotTable);
+    		if(priorTable != null){
+    			slotTable = priorTable;
+    		}
+    	}
+    	return slotTable;
+    }
+    
     public static Class<? extends EntityMultipartD_Moving> getMultipartClass(String multipartName){
     	switch(getMultipartPack(multipartName).general.type){
 			case "car": return EntityMultipartF_Car.class;
@@ -284,17 +316,25 @@ public final class PackParserSystem{
     
     
     //-----START OF CONSTANTS AND SWITCHES-----
-    public static Class<? extends APart> getPartPartClass(String partName){
-    	switch(getPartPack(partName).general.type){
-			case "crate": return PartCrate.class;
-			case "engine_aircraft": return PartEngineAircraft.class;
-			case "engine_car": return PartEngineCar.class;
-			case "ground_device": return PartGroundDevice.class;
-			case "propeller": return PartPropeller.class;
-			case "seat": return PartSeat.class;
-			case "custom": return PartCustom.class;
-			default: return null;
-		}
+    /**Makes a new part with the passed-in name.  Uses the factory found for the part when its pack was loaded,
+     * so there's no need to look up the part's class or constructor every time.
+     * Throws an exception if the part isn't in a pack or is of a type that doesn't exist.**/
+    public static APart createPart(EntityMultipartD_Moving multipart, PackPart packPart, String partName, NBTTagCompound dataTag){
+    	PartFactory factory = partFactoryMap.get(partName);
+    	if(factory == null){
+    		throw new IllegalArgumentException("NO PART FACTORY FOUND FOR: " + partName);
+    	}
+    	return factory.createPart(multipart, packPart, partName, dataTag);
+    }
+    
+    /**Returns the factory for parts of the passed-in type.  Only one is made for each type.**/
+    private static PartFactory getPartFactory(String type){
+    	PartFactory factory = partTypeFactoryMap.get(type);
+    	if(factory == null){
+    		factory = new PartTypeFactory(type);
+    		partTypeFactoryMap.put(type, factory);
+    	}
+    	return factory;
     }
     
     public static Class<? extends AItemPart> getPartItemClass(String partName){
@@ -309,4 +349,31 @@ public final class PackParserSystem{
 			default: return null;
 		}
     }
+    
+    /**Makes parts of one type.  Used in place of reflection, so making a part is a plain constructor call.**/
+    public static interface PartFactory{
+    	public APart createPart(EntityMultipartD_Moving multipart, PackPart packPart, String partName, NBTTagCompound dataTag);
+    }
+    
+    private static class PartTypeFactory implements PartFactory{
+    	private final String type;
+    	
+    	private PartTypeFactory(String type){
+    		this.type = type;
+    	}
+    	
+    	@Override
+    	public APart createPart(EntityMultipartD_Moving multipart, PackPart packPart, String partName, NBTTagCompound dataTag){
+    		switch(type){
+				case "crate": return new PartCrate(multipart, packPart, partName, dataTag);
+				case "engine_aircraft": return new PartEngineAircraft(multipart, packPart, partName, dataTag);
+				case "engine_car": return new PartEngineCar(multipart, packPart, partName, dataTag);
+				case "ground_device": return new PartGroundDevice(multipart, packPart, partName, dataTag);
+				case "propeller": return new PartPropeller(multipart, packPart, partName, dataTag);
+				case "seat": return new PartSeat(multipart, packPart, partName, dataTag);
+				case "custom": return new PartCustom(multipart, packPart, partName, dataTag);
+				default: throw new IllegalArgumentException("NO PART FACTORY FOUND FOR TYPE: " + type + " OF PART: " + partName);
+			}
+    	}
+    }
 }
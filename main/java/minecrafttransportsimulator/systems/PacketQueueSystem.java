@@ -0,0 +1,157 @@
+package minecrafttransportsimulator.systems;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent;
+import net.minecraftforge.fml.common.gameevent.TickEvent.Phase;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+
+/**Class that runs packet handler tasks on the main thread.  Rather than each handler scheduling its own task,
+ * tasks are added to a queue for their side and all run in one go at the start of that side's tick.
+ * Tasks can be given a key of their packet class and entity.  If a task with the same key is already
+ * waiting, it is dropped and the new one is added at the end, so a flood of packets that each set
+ * the same control to a new value only sets it once.  Only use keys for packets that set absolute values,
+ * as packets that add to values need every one of them to run.
+ * Task counts and how long tasks wait to run are kept in the {@link MetricsSystem}.  Setting the
+ * BulkPacketDispatch config to false schedules each task on its own like before, for comparison.
+ *
+ * @author don_bruce
+ */
+@Mod.EventBusSubscriber
+public final class PacketQueueSystem{
+	private static final TaskQueue serverQueue = new TaskQueue();
+	private static final TaskQueue clientQueue = new TaskQueue();
+
+	/**
+	 * Schedules the passed-in task to run on the main thread for the side the passed-in context is on.
+	 */
+	public static void schedule(MessageContext ctx, Runnable task){
+		schedule(ctx, null, 0, task);
+	}
+
+	/**
+	 * Like {@link #schedule(MessageContext, Runnable)}, but drops any task still waiting that has the same
+	 * packet class and entity ID.  Pass in null as the class to never drop tasks.
+	 */
+	public static void schedule(MessageContext ctx, Class<?> packetClass, int entityID, final Runnable task){
+		MetricsSystem.increment("inboundTasks");
+		if(ConfigSystem.getBooleanConfig("BulkPacketDispatch")){
+			(ctx.side.isServer() ? serverQueue : clientQueue).add(new QueuedTask(packetClass, entityID, task));
+		}else{
+			final long queuedTime = System.nanoTime();
+			FMLCommonHandler.instance().getWorldThread(ctx.netHandler).addScheduledTask(new Runnable(){
+				@Override
+				public void run(){
+					MetricsSystem.add("inboundTaskWaitNanos", System.nanoTime() - queuedTime);
+					task.run();
+				}
+			});
+		}
+	}
+
+	@SubscribeEvent
+	public static void on(TickEvent.ServerTickEvent event){
+		if(event.phase.equals(Phase.START)){
+			serverQueue.runTasks();
+		}
+	}
+
+	@SubscribeEvent
+	public static void on(TickEvent.ClientTickEvent event){
+		if(event.phase.equals(Phase.START)){
+			clientQueue.runTasks();
+		}
+	}
+
+	private static class TaskQueue{
+		private List<QueuedTask> tasks = new ArrayList<QueuedTask>();
+		private List<QueuedTask> runningTasks = new ArrayList<QueuedTask>();
+		/**Index in the task list of the waiting task for each key.*/
+		private final Map<TaskKey, Integer> keyedTaskIndexes = new HashMap<TaskKey, Integer>();
+
+		/**
+		 * Adds a task.  Called from network threads, so this is the only place tasks are touched outside the main thread.
+		 */
+		private synchronized void add(QueuedTask task){
+			if(task.key != null){
+				Integer priorIndex = keyedTaskIndexes.put(task.key, tasks.size());
+				if(priorIndex != null){
+					tasks.set(priorIndex, null);
+					MetricsSystem.increment("inboundTasksCoalesced");
+				}
+			}
+			tasks.add(task);
+		}
+
+		/**
+		 * Swaps the task lists and runs all tasks that were waiting.  Swapping means network threads
+		 * can keep adding tasks while these run.  Exceptions are caught so one bad packet doesn't
+		 * stop the rest from running.
+		 */
+		private void runTasks(){
+			synchronized(this){
+				if(tasks.isEmpty()){
+					return;
+				}
+				List<QueuedTask> waitingTasks = tasks;
+				tasks = runningTasks;
+				runningTasks = waitingTasks;
+				keyedTaskIndexes.clear();
+			}
+
+			long runTime = System.nanoTime();
+			long totalWaitTime = 0;
+			for(QueuedTask task : runningTasks){
+				if(task != null){
+					totalWaitTime += runTime - task.queuedTime;
+					try{
+						task.task.run();
+					}catch(Exception e){
+						e.printStackTrace();
+					}
+				}
+			}
+			MetricsSystem.add("inboundTaskWaitNanos", totalWaitTime);
+			MetricsSystem.increment("inboundTaskDrains");
+			runningTasks.clear();
+		}
+	}
+
+	private static class QueuedTask{
+		private final TaskKey key;
+		private final Runnable task;
+		private final long queuedTime;
+
+		private QueuedTask(Class<?> packetClass, int entityID, Runnable task){
+			this.key = packetClass != null ? new TaskKey(packetClass, entityID) : null;
+			this.task = task;
+			this.queuedTime = System.nanoTime();
+		}
+	}
+
+	private static class TaskKey{
+		private final Class<?> packetClass;
+		private final int entityID;
+
+		private TaskKey(Class<?> packetClass, int entityID){
+			this.packetClass = packetClass;
+			this.entityID = entityID;
+		}
+
+		@Override
+		public boolean equals(Object object){
+			return object instanceof TaskKey && ((TaskKey) object).packetClass == packetClass && ((TaskKey) object).entityID == entityID;
+		}
+
+		@Override
+		public int hashCode(){
+			return 31*packetClass.hashCode() + entityID;
+		}
+	}
+}
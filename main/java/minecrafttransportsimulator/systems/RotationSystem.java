@@ -1,21 +1,16 @@
 package minecrafttransportsimulator.systems;
 
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
 import net.minecraft.util.math.Vec3d;
 
 /**Lots of math here.  Move along, nothing to see.
+ * All methods here are stateless, so they are safe to call from any thread.
+ * If you are rotating lots of points by the same angles, use a {@link RotationMatrix} instead
+ * as it only does the trig once.  Multiparts have one for their current orientation.
  * 
  * @author don_bruce
  */
 public final class RotationSystem{
-	private static double d1;
-	private static double d2;
-	private static double d3;
-	private static double d4;
-	private static double d5;
-	private static double d6;
-	private static double d7;
-	private static double d8;
-	private static double d9;
 	
 	/**
 	 * Takes a point and rotates it about a specified pitch, roll, and yaw.
@@ -27,15 +22,15 @@ public final class RotationSystem{
 	 * @return A Vec3d with the rotated points.
 	 */
 	public static Vec3d getRotatedPoint(Vec3d pos, float pitch, float yaw, float roll){
-		d1 = Math.cos(pitch * 0.017453292F);//A
-		d2 = Math.sin(pitch * 0.017453292F);//B
-		d3 = Math.cos(yaw * 0.017453292F);//C
-		d4 = Math.sin(yaw * 0.017453292F);//D
-		d5 = Math.cos(roll * 0.017453292F);//E
-		d6 = Math.sin(roll * 0.017453292F);//F
-		d7 = pos.xCoord*(d3*d5-d2*d4*d6) + pos.yCoord*(-d2*d4*d5-d3*d6) + pos.zCoord*(-d1*d4);
-		d8 = pos.xCoord*(d1*d6)          + pos.yCoord*(d1*d5)           + pos.zCoord*(-d2);
-		d9 = pos.xCoord*(d4*d5+d2*d3*d6) + pos.yCoord*(d2*d3*d5-d4*d6)  + pos.zCoord*(d1*d3);
+		final double d1 = Math.cos(pitch * 0.017453292F);//A
+		final double d2 = Math.sin(pitch * 0.017453292F);//B
+		final double d3 = Math.cos(yaw * 0.017453292F);//C
+		final double d4 = Math.sin(yaw * 0.017453292F);//D
+		final double d5 = Math.cos(roll * 0.017453292F);//E
+		final double d6 = Math.sin(roll * 0.017453292F);//F
+		final double d7 = pos.xCoord*(d3*d5-d2*d4*d6) + pos.yCoord*(-d2*d4*d5-d3*d6) + pos.zCoord*(-d1*d4);
+		final double d8 = pos.xCoord*(d1*d6)          + pos.yCoord*(d1*d5)           + pos.zCoord*(-d2);
+		final double d9 = pos.xCoord*(d4*d5+d2*d3*d6) + pos.yCoord*(d2*d3*d5-d4*d6)  + pos.zCoord*(d1*d3);
 		return new Vec3d(d7, d8, d9);
 	}
 	
@@ -48,12 +43,12 @@ public final class RotationSystem{
 	 * @return A Vec3d with the rotated unit vector.
 	 */
 	public static Vec3d getRotatedY(float pitch, float yaw, float roll){
-		d1 = Math.cos(pitch * 0.017453292F);
-		d2 = Math.sin(pitch * 0.017453292F);
-		d3 = Math.cos(yaw * 0.017453292F);
-		d4 = Math.sin(yaw * 0.017453292F);
-		d5 = Math.cos(roll * 0.017453292F);
-		d6 = Math.sin(roll * 0.017453292F);
+		final double d1 = Math.cos(pitch * 0.017453292F);
+		final double d2 = Math.sin(pitch * 0.017453292F);
+		final double d3 = Math.cos(yaw * 0.017453292F);
+		final double d4 = Math.sin(yaw * 0.017453292F);
+		final double d5 = Math.cos(roll * 0.017453292F);
+		final double d6 = Math.sin(roll * 0.017453292F);
 		return new Vec3d((-d3*d6 - d2*d4*d5), (d1*d5), (d2*d3*d5 - d4*d6));
 	}
 	
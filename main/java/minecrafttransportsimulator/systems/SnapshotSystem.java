@@ -0,0 +1,136 @@
+package minecrafttransportsimulator.systems;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import minecrafttransportsimulator.MTS;
+import minecrafttransportsimulator.multipart.main.EntityMultipartA_Base;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityList;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagDouble;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.world.World;
+
+/**Class responsible for writing multiparts to snapshot files and reading them back.  Snapshots hold everything
+ * a multipart saves, so the pack, parts, fuel, engines, and crate contents all come along.  Files start with a
+ * header, followed by one record per multipart, and are read and written one record at a time so big exports
+ * never need to be held in memory.  Positions are stored relative to an origin, so multiparts keep their layout
+ * when imported somewhere else.  Riders and entity UUIDs are not stored, as they belong to the world the multipart came from.
+ * Parts are always stored with their full offsets rather than slot keys, so snapshots don't depend on how
+ * the exporting game found its pack slots and can be imported with any set of part packs.
+ *
+ * @author don_bruce
+ */
+public final class SnapshotSystem{
+	/**Marks the start of a snapshot file.  Spells MTSS.*/
+	private static final int FILE_MAGIC = 0x4D545353;
+	/**Version of the snapshot format.  Bump this if records change, and keep reading older versions.*/
+	private static final byte FILE_VERSION = 1;
+	public static final String FILE_EXTENSION = ".mtss";
+
+	/**
+	 * Writes the passed-in multiparts to the passed-in file, with positions relative to the passed-in origin.
+	 * Multiparts that can't be saved, such as ones with no pack, are skipped.  Returns the number written.
+	 */
+	public static int exportMultiparts(File snapshotFile, List<EntityMultipartA_Base> multiparts, Vec3d origin) throws IOException{
+		snapshotFile.getParentFile().mkdirs();
+		DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(snapshotFile))));
+		int written = 0;
+		try{
+			output.writeInt(FILE_MAGIC);
+			output.writeByte(FILE_VERSION);
+			for(EntityMultipartA_Base multipart : multiparts){
+				NBTTagCompound snapshotTag = new NBTTagCompound();
+				if(multipart.pack != null && multipart.writeToNBTOptional(snapshotTag)){
+					snapshotTag.removeTag("UUIDMost");
+					snapshotTag.removeTag("UUIDLeast");
+					snapshotTag.removeTag("Passengers");
+					//Make a new position list rather than changing the saved one, as it may be shared with cached NBT.
+					snapshotTag.setTag("Pos", getPositionList(multipart.posX - origin.xCoord, multipart.posY - origin.yCoord, multipart.posZ - origin.zCoord));
+					snapshotTag.setTag("Parts", getPartListWithOffsets(multipart, snapshotTag.getTagList("Parts", 10)));
+					output.writeBoolean(true);
+					CompressedStreamTools.write(snapshotTag, output);
+					++written;
+				}
+			}
+			output.writeBoolean(false);
+		}finally{
+			output.close();
+		}
+		return written;
+	}
+
+	/**
+	 * Reads all multiparts from the passed-in file and spawns them in the passed-in world, with positions
+	 * relative to the passed-in origin.  Returns the number spawned.
+	 */
+	public static int importMultiparts(File snapshotFile, World world, Vec3d origin) throws IOException{
+		DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(snapshotFile))));
+		int spawned = 0;
+		try{
+			if(input.readInt() != FILE_MAGIC){
+				throw new IOException("NOT A SNAPSHOT FILE: " + snapshotFile.getName());
+			}
+			byte version = input.readByte();
+			if(version > FILE_VERSION){
+				throw new IOException("SNAPSHOT FILE " + snapshotFile.getName() + " IS FROM A NEWER VERSION: " + version);
+			}
+			while(input.readBoolean()){
+				NBTTagCompound snapshotTag = CompressedStreamTools.read(input);
+				NBTTagList positionList = snapshotTag.getTagList("Pos", 6);
+				snapshotTag.setTag("Pos", getPositionList(positionList.getDoubleAt(0) + origin.xCoord, positionList.getDoubleAt(1) + origin.yCoord, positionList.getDoubleAt(2) + origin.zCoord));
+				Entity entity = EntityList.createEntityFromNBT(snapshotTag, world);
+				if(entity instanceof EntityMultipartA_Base){
+					world.spawnEntityInWorld(entity);
+					++spawned;
+				}else{
+					MTS.MTSLog.error("COULD NOT CREATE MULTIPART FROM SNAPSHOT: " + snapshotTag.getString("multipartName"));
+				}
+			}
+		}finally{
+			input.close();
+		}
+		return spawned;
+	}
+
+	/**
+	 * Returns a copy of the passed-in saved part list with every part's slot key swapped for its full offset.
+	 * Copies are made as the saved tags may be shared with cached NBT.
+	 */
+	private static NBTTagList getPartListWithOffsets(EntityMultipartA_Base multipart, NBTTagList partTagList){
+		NBTTagList offsetPartTagList = new NBTTagList();
+		for(int i=0; i<partTagList.tagCount(); ++i){
+			NBTTagCompound partTag = partTagList.getCompoundTagAt(i);
+			if(partTag.hasKey("slotKey")){
+				Vec3d offset = multipart.getSlotKeyPosition(partTag.getLong("slotKey"));
+				partTag = partTag.copy();
+				partTag.removeTag("slotKey");
+				partTag.setDouble("offsetX", offset.xCoord);
+				partTag.setDouble("offsetY", offset.yCoord);
+				partTag.setDouble("offsetZ", offset.zCoord);
+			}
+			offsetPartTagList.appendTag(partTag);
+		}
+		return offsetPartTagList;
+	}
+
+	private static NBTTagList getPositionList(double x, double y, double z){
+		NBTTagList positionList = new NBTTagList();
+		positionList.appendTag(new NBTTagDouble(x));
+		positionList.appendTag(new NBTTagDouble(y));
+		positionList.appendTag(new NBTTagDouble(z));
+		return positionList;
+	}
+}
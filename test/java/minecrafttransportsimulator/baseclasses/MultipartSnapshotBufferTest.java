@@ -0,0 +1,146 @@
+package minecrafttransportsimulator.baseclasses;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**Replays a recorded server path through {@link MultipartSnapshotBuffer} with fixed packet arrival times.
+ * The server side sends deltas the same way multiparts do: only when the client's prediction is off, or
+ * once every keyframe interval.  Arrival times come from a fixed latency and jitter pattern, so every run
+ * sees the exact same packets on the exact same ticks.
+ *
+ * @author don_bruce
+ */
+public class MultipartSnapshotBufferTest{
+	private static final int TICKS = 400;
+	private static final int LATENCY = 3;
+	private static final int[] JITTER = {0, 1, 0, 2, 1, 0, 0, 3, 1, 0, 2, 0};
+	private static final int MAX_JITTER = 3;
+	private static final int DELAY = 2;
+	private static final int MAX_EXTRAPOLATION = 30;
+	private static final int KEYFRAME_INTERVAL = 20;
+	private static final double POSITION_THRESHOLD = 0.05D;
+	/**Fastest the server path moves in one tick.*/
+	private static final double MAX_SPEED = 0.5D;
+	/**Largest error allowed.  This is the send threshold plus how far the server can turn away from
+	 * the last path sent while the packet that corrects it is held up by jitter.*/
+	private static final double MAX_ERROR = 0.25D;
+
+	@Test
+	public void playbackStaysOnServerPath(){
+		double[] server = getServerPath();
+		double[] client = replay(server, TICKS)[0];
+		int maxLag = LATENCY + MAX_JITTER + DELAY + 1;
+		for(int tick=KEYFRAME_INTERVAL; tick<TICKS; ++tick){
+			double error = Double.MAX_VALUE;
+			for(int lag=0; lag<=maxLag && lag<=tick; ++lag){
+				error = Math.min(error, Math.abs(client[tick] - server[tick - lag]));
+			}
+			assertTrue("Playback left the server path at tick " + tick + " by " + error, error < MAX_ERROR);
+			assertTrue("Playback jumped at tick " + tick, Math.abs(client[tick] - client[tick - 1]) < 2*MAX_SPEED);
+		}
+	}
+
+	@Test
+	public void predictionTracksServerNow(){
+		double[] server = getServerPath();
+		double[] predicted = replay(server, TICKS)[1];
+		//Predictions are only as new as the last packet, so allow for the movement over the worst latency.
+		int maxLatency = LATENCY + MAX_JITTER;
+		for(int tick=KEYFRAME_INTERVAL; tick<TICKS; ++tick){
+			double error = Double.MAX_VALUE;
+			for(int lag=0; lag<=maxLatency; ++lag){
+				error = Math.min(error, Math.abs(predicted[tick] - server[tick - lag]));
+			}
+			assertTrue("Prediction left the server path at tick " + tick + " by " + error, error < MAX_ERROR);
+		}
+	}
+
+	@Test
+	public void extrapolationStopsAfterLimit(){
+		double[] server = getServerPath();
+		//Stop delivering packets half way through, while the server is still moving.
+		double[] client = replay(server, TICKS/2)[0];
+		for(int tick=TICKS/2 + LATENCY + MAX_EXTRAPOLATION + 2*DELAY + 1; tick<TICKS; ++tick){
+			assertEquals(client[tick - 1], client[tick], 0);
+		}
+	}
+
+	@Test
+	public void replaysAreDeterministic(){
+		double[] server = getServerPath();
+		double[][] first = replay(server, TICKS);
+		double[][] second = replay(server, TICKS);
+		assertArrayEquals(first[0], second[0], 0);
+		assertArrayEquals(first[1], second[1], 0);
+	}
+
+	/**
+	 * Returns the server's total movement on each tick.  The path speeds up, cruises, weaves, and stops.
+	 */
+	private static double[] getServerPath(){
+		double[] path = new double[TICKS];
+		double velocity = 0;
+		for(int tick=1; tick<TICKS; ++tick){
+			if(tick < 60){
+				velocity = Math.min(velocity + 0.01D, MAX_SPEED);
+			}else if(tick < 150){
+				//Cruise.
+			}else if(tick < 300){
+				velocity = 0.3D + 0.2D*Math.sin(tick/10D);
+			}else{
+				velocity = Math.max(velocity - 0.02D, 0);
+			}
+			path[tick] = path[tick - 1] + velocity;
+		}
+		return path;
+	}
+
+	/**
+	 * Sends the passed-in server path through a buffer, stopping sends at the passed-in tick.
+	 * Returns the played-back and predicted positions on each client tick.
+	 */
+	private static double[][] replay(double[] server, int lastSendTick){
+		//Work out what the server sends, and when each packet gets to the client.
+		List<int[]> arrivals = new ArrayList<int[]>();
+		List<Double> positions = new ArrayList<Double>();
+		double sent = 0;
+		double sentVelocity = 0;
+		int lastSend = 0;
+		int lastArrival = 0;
+		for(int tick=1; tick<lastSendTick; ++tick){
+			int ticks = tick - lastSend;
+			if(Math.abs(server[tick] - (sent + sentVelocity*ticks)) > POSITION_THRESHOLD || ticks >= KEYFRAME_INTERVAL){
+				sentVelocity = (server[tick] - sent)/ticks;
+				sent = server[tick];
+				lastSend = tick;
+				//Packets arrive in order, as they would over one connection.
+				lastArrival = Math.max(lastArrival, tick + LATENCY + JITTER[tick%JITTER.length]);
+				arrivals.add(new int[]{lastArrival, ticks});
+				positions.add(sent);
+			}
+		}
+
+		//Play the packets back on the client.  Packets are handled before the multipart updates each tick.
+		MultipartSnapshotBuffer buffer = new MultipartSnapshotBuffer();
+		buffer.reset(0, 0, 0, 0, 0, 0);
+		double[] played = new double[TICKS];
+		double[] predicted = new double[TICKS];
+		int nextPacket = 0;
+		for(int tick=1; tick<TICKS; ++tick){
+			while(nextPacket < arrivals.size() && arrivals.get(nextPacket)[0] <= tick){
+				buffer.addSnapshot(arrivals.get(nextPacket)[1], positions.get(nextPacket), 0, 0, 0, 0, 0, DELAY);
+				++nextPacket;
+			}
+			buffer.update(MAX_EXTRAPOLATION);
+			played[tick] = buffer.getX();
+			predicted[tick] = buffer.getPredictedX();
+		}
+		return new double[][]{played, predicted};
+	}
+}